@@ -37,6 +37,12 @@ public class MetaFile {
     public static final String META_EXTENSION = "meta";
     public static final int CURRENT_VERSION = 1;
 
+    /**
+     * Default maximum height error of terrains. Heights are saved losslessly,
+     * 16 bit storage must be enabled per terrain.
+     */
+    public static final float DEFAULT_TERRAIN_HEIGHT_ERROR = 0;
+
     private static final String COMMENT = "# !!! WARNING, DO NOT MODIFY OR DELETE !!! \n "
             + "This file is machine generated. If you delete or modify this, Mundus might not work anymore.\n";
 
@@ -51,6 +57,7 @@ public class MetaFile {
 
     // terrain
     private static final String PROP_TERRAIN_SIZE = "terrain.size";
+    private static final String PROP_TERRAIN_HEIGHT_ERROR = "terrain.height.error";
     private static final String PROP_MATERIAL_TERRAIN_SPLATMAP = "terrain.mat.splatmap";
     private static final String PROP_MATERIAL_TERRAIN_SPLAT_BASE = "terrain.mat.splat.base";
     private static final String PROP_MATERIAL_TERRAIN_SPLAT_R = "terrain.mat.splat.r";
@@ -79,6 +86,7 @@ public class MetaFile {
     private String terrainSplatB;
     private String terrainSplatA;
     private int terrainSize;
+    private float terrainHeightError = DEFAULT_TERRAIN_HEIGHT_ERROR;
 
     public MetaFile(FileHandle file) {
         this.file = file;
@@ -124,6 +132,7 @@ public class MetaFile {
                 props.setProperty(PROP_MATERIAL_TERRAIN_SPLAT_A, terrainSplatA);
             }
             props.setProperty(PROP_TERRAIN_SIZE, String.valueOf(terrainSize));
+            props.setProperty(PROP_TERRAIN_HEIGHT_ERROR, String.valueOf(terrainHeightError));
         }
 
         props.store(new FileOutputStream(file.file()), COMMENT);
@@ -158,6 +167,8 @@ public class MetaFile {
                 this.terrainSplatB = props.getProperty(PROP_MATERIAL_TERRAIN_SPLAT_B, null);
                 this.terrainSplatA = props.getProperty(PROP_MATERIAL_TERRAIN_SPLAT_A, null);
                 this.terrainSize = Integer.valueOf(props.getProperty(PROP_TERRAIN_SIZE, "1200"));
+                this.terrainHeightError = Float.valueOf(props.getProperty(PROP_TERRAIN_HEIGHT_ERROR,
+                        String.valueOf(DEFAULT_TERRAIN_HEIGHT_ERROR)));
             }
 
         } catch (Exception e) {
@@ -274,6 +285,18 @@ public class MetaFile {
         this.terrainSize = terrainSize;
     }
 
+    /**
+     * @return maximum height error allowed, when saving the terrain; 0 for
+     *         lossless storage
+     */
+    public float getTerrainHeightError() {
+        return terrainHeightError;
+    }
+
+    public void setTerrainHeightError(float terrainHeightError) {
+        this.terrainHeightError = terrainHeightError;
+    }
+
     public Properties getProps() {
         return props;
     }
@@ -20,6 +20,7 @@ import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.UBJsonReader;
 import com.mbrlabs.mundus.commons.g3d.MG3dModelLoader;
 
@@ -31,6 +32,7 @@ public class ModelAsset extends Asset {
 
     private Model model;
     private TextureAsset diffuseTexture;
+    private BoundingBox bounds;
 
     public ModelAsset(MetaFile meta, FileHandle assetFile) {
         super(meta, assetFile);
@@ -40,6 +42,18 @@ public class ModelAsset extends Asset {
         return model;
     }
 
+    /**
+     * Bounding box of the model. Calculated once & shared by all instances.
+     *
+     * @return bounds in model space or null if the model is not loaded
+     */
+    public BoundingBox getBounds() {
+        if (bounds == null && model != null) {
+            bounds = model.calculateBoundingBox(new BoundingBox());
+        }
+        return bounds;
+    }
+
     public void setDiffuseTexture(TextureAsset tex) {
         diffuseTexture = tex;
     }
@@ -53,6 +67,7 @@ public class ModelAsset extends Asset {
         // TODO don't create a new loader each time
         MG3dModelLoader loader = new MG3dModelLoader(new UBJsonReader());
         model = loader.loadModel(file);
+        bounds = null;
         for (Material mat : model.materials) {
             if (getMeta().getDiffuseColor() != null) {
                 mat.set(new ColorAttribute(ColorAttribute.Diffuse, getMeta().getDiffuseColor()));
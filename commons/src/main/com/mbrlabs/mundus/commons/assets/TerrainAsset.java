@@ -16,18 +16,12 @@
 package com.mbrlabs.mundus.commons.assets;
 
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.FloatArray;
 import com.mbrlabs.mundus.commons.terrain.SplatMap;
 import com.mbrlabs.mundus.commons.terrain.SplatTexture;
+import com.mbrlabs.mundus.commons.terrain.TerraFile;
 import com.mbrlabs.mundus.commons.terrain.Terrain;
 import com.mbrlabs.mundus.commons.terrain.TerrainTexture;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
-import java.io.EOFException;
-import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-
 /**
  * @author Marcus Brummer
  * @version 01-10-2016
@@ -139,26 +133,10 @@ public class TerrainAsset extends Asset {
     @Override
     public void load() {
         // load height data from terra file
-        final FloatArray floatArray = new FloatArray();
-
-        DataInputStream is;
-        try {
-            is = new DataInputStream(new BufferedInputStream(new GZIPInputStream(file.read())));
-            while (is.available() > 0) {
-                floatArray.add(is.readFloat());
-            }
-            is.close();
-        } catch (EOFException e) {
-            // e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return;
-        }
-        data = floatArray.toArray();
+        data = TerraFile.read(file);
 
         terrain = new Terrain(getMeta().getTerrainSize(), data);
         terrain.init();
-        terrain.update();
     }
 
     @Override
@@ -195,8 +173,6 @@ public class TerrainAsset extends Asset {
         } else {
             terrainTexture.setSplatTexture(new SplatTexture(SplatTexture.Channel.A, splatA));
         }
-
-        terrain.update();
     }
 
     @Override
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.g3d;
+
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+
+/**
+ * Model batch, that collects all renderables between begin() & end() and
+ * draws them sorted by render state (see {@link StateRenderableSorter}).
+ *
+ * Draw calls, shader switches & texture binds are counted over all flushes,
+ * until resetStats() is called (usually once per frame).
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class RenderQueue extends ModelBatch {
+
+    private int drawCalls;
+    private int shaderSwitches;
+    private int textureBinds;
+
+    public RenderQueue() {
+        this(new StateRenderableSorter());
+    }
+
+    public RenderQueue(RenderableSorter sorter) {
+        super(sorter);
+    }
+
+    @Override
+    public void flush() {
+        sorter.sort(camera, renderables);
+        final int bindCount = context.textureBinder.getBindCount();
+
+        Shader currentShader = null;
+        for (int i = 0; i < renderables.size; i++) {
+            final Renderable renderable = renderables.get(i);
+            if (currentShader != renderable.shader) {
+                if (currentShader != null) currentShader.end();
+                currentShader = renderable.shader;
+                currentShader.begin(camera, context);
+                shaderSwitches++;
+            }
+            currentShader.render(renderable);
+        }
+        if (currentShader != null) currentShader.end();
+
+        drawCalls += renderables.size;
+        textureBinds += context.textureBinder.getBindCount() - bindCount;
+        renderablesPool.flush();
+        renderables.clear();
+    }
+
+    public void resetStats() {
+        drawCalls = 0;
+        shaderSwitches = 0;
+        textureBinds = 0;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    public int getShaderSwitches() {
+        return shaderSwitches;
+    }
+
+    public int getTextureBinds() {
+        return textureBinds;
+    }
+
+}
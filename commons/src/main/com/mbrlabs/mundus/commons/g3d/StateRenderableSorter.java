@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.g3d;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
+import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+import com.badlogic.gdx.graphics.g3d.utils.RenderableSorter;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Comparator;
+
+/**
+ * Sorts renderables by render state.
+ *
+ * Opaque renderables come first, ordered by shader, diffuse texture & mesh.
+ * Renderables with the same state are drawn front to back. Blended
+ * renderables are drawn last & back to front.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class StateRenderableSorter implements RenderableSorter, Comparator<Renderable> {
+
+    private Camera camera;
+    private final Vector3 tmpV1 = new Vector3();
+    private final Vector3 tmpV2 = new Vector3();
+
+    @Override
+    public void sort(Camera camera, Array<Renderable> renderables) {
+        this.camera = camera;
+        renderables.sort(this);
+    }
+
+    @Override
+    public int compare(Renderable o1, Renderable o2) {
+        final boolean b1 = isBlended(o1.material);
+        final boolean b2 = isBlended(o2.material);
+        if (b1 != b2) return b1 ? 1 : -1;
+
+        int result;
+        if (b1) {
+            // blending needs back to front; state comes second
+            result = compareDistance(o2, o1);
+            if (result != 0) return result;
+        }
+
+        result = compareShaders(o1.shader, o2.shader);
+        if (result != 0) return result;
+
+        result = compareInts(getTextureHandle(o1.material), getTextureHandle(o2.material));
+        if (result != 0) return result;
+
+        result = compareInts(System.identityHashCode(o1.meshPart.mesh), System.identityHashCode(o2.meshPart.mesh));
+        if (result != 0) return result;
+
+        return b1 ? 0 : compareDistance(o1, o2);
+    }
+
+    private int compareShaders(Shader s1, Shader s2) {
+        if (s1 == s2) return 0;
+
+        // shaders of different types don't know each other, so both
+        // directions are asked to keep the order antisymmetric
+        final int result = Integer.signum(s1.compareTo(s2)) - Integer.signum(s2.compareTo(s1));
+        if (result != 0) return result;
+
+        return compareInts(System.identityHashCode(s1), System.identityHashCode(s2));
+    }
+
+    private int compareDistance(Renderable o1, Renderable o2) {
+        tmpV1.set(o1.meshPart.center).mul(o1.worldTransform);
+        tmpV2.set(o2.meshPart.center).mul(o2.worldTransform);
+        return Float.compare(camera.position.dst2(tmpV1), camera.position.dst2(tmpV2));
+    }
+
+    private static boolean isBlended(Material material) {
+        final BlendingAttribute blending = (BlendingAttribute) material.get(BlendingAttribute.Type);
+        return blending != null && blending.blended;
+    }
+
+    private static int getTextureHandle(Material material) {
+        final TextureAttribute diffuse = (TextureAttribute) material.get(TextureAttribute.Diffuse);
+        if (diffuse == null || diffuse.textureDescription.texture == null) return 0;
+        return diffuse.textureDescription.texture.getTextureObjectHandle();
+    }
+
+    private static int compareInts(int a, int b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+}
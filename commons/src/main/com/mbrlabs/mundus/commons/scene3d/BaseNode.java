@@ -48,8 +48,9 @@ public abstract class BaseNode<T extends BaseNode> implements Node<T> {
 
     @Override
     public boolean isChildOf(GameObject other) {
-        for (GameObject go : other) {
-            if (go.id == this.id) return true;
+        // walk up to the root instead of searching the whole subtree of other
+        for (BaseNode<?> node = this; node != null; node = node.parent) {
+            if (node.id == other.id) return true;
         }
 
         return false;
@@ -0,0 +1,525 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.scene3d;
+
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Dynamic bounding volume hierarchy of axis aligned bounding boxes.
+ *
+ * Items can be inserted, removed & moved at any time. Leaves store fattened
+ * boxes, so that small movements don't require any changes to the tree. The
+ * tree is kept balanced with tree rotations (like the dynamic tree of Box2D).
+ *
+ * Items are referenced by proxy ids, that are returned by insert().
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class DynamicBvh<T> {
+
+    /** Fattening of leaf boxes, relative to the size of the box */
+    public static final float MARGIN = 0.1f;
+    /** Minimal absolute fattening of leaf boxes */
+    public static final float MIN_MARGIN = 0.05f;
+
+    private static final int NULL = -1;
+
+    // min x, y, z & max x, y, z per node
+    private float[] bounds;
+    private int[] parents;
+    private int[] child1;
+    private int[] child2;
+    private int[] heights;
+    private Object[] items;
+
+    private int root = NULL;
+    private int capacity;
+    private int freeList = NULL;
+    private int leafCount;
+
+    private int[] stack = new int[64];
+
+    public DynamicBvh() {
+        capacity = 0;
+        grow(16);
+    }
+
+    /**
+     * @return number of items
+     */
+    public int size() {
+        return leafCount;
+    }
+
+    /**
+     * Inserts an item.
+     *
+     * @param box
+     *            bounding box of the item
+     * @param item
+     *            the item
+     * @return proxy id of the item
+     */
+    public int insert(BoundingBox box, T item) {
+        final int leaf = allocate();
+        setFatBounds(leaf, box);
+        items[leaf] = item;
+        heights[leaf] = 0;
+        insertLeaf(leaf);
+        leafCount++;
+        return leaf;
+    }
+
+    /**
+     * Removes an item.
+     *
+     * @param proxy
+     *            proxy id of the item
+     */
+    public void remove(int proxy) {
+        removeLeaf(proxy);
+        release(proxy);
+        leafCount--;
+    }
+
+    /**
+     * Moves an item. The tree is only modified, if the new box is not
+     * contained by the fattened box of the item.
+     *
+     * @param proxy
+     *            proxy id of the item
+     * @param box
+     *            new bounding box of the item
+     * @return true if the tree has been modified
+     */
+    public boolean update(int proxy, BoundingBox box) {
+        final int o = proxy * 6;
+        if (bounds[o] <= box.min.x && bounds[o + 1] <= box.min.y && bounds[o + 2] <= box.min.z
+                && bounds[o + 3] >= box.max.x && bounds[o + 4] >= box.max.y && bounds[o + 5] >= box.max.z) {
+            return false;
+        }
+
+        removeLeaf(proxy);
+        setFatBounds(proxy, box);
+        insertLeaf(proxy);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int proxy) {
+        return (T) items[proxy];
+    }
+
+    /**
+     * @return fattened bounding box of the item
+     */
+    public BoundingBox getFatBounds(int proxy, BoundingBox out) {
+        final int o = proxy * 6;
+        out.min.set(bounds[o], bounds[o + 1], bounds[o + 2]);
+        out.max.set(bounds[o + 3], bounds[o + 4], bounds[o + 5]);
+        return out.set(out.min, out.max);
+    }
+
+    /**
+     * Finds all items, whose boxes are (partially) inside the frustum.
+     */
+    public Array<T> query(Frustum frustum, Array<T> out) {
+        return query(frustum, null, null, 0, out);
+    }
+
+    /**
+     * Finds all items, whose boxes overlap the given box.
+     */
+    public Array<T> query(BoundingBox box, Array<T> out) {
+        return query(null, box, null, 0, out);
+    }
+
+    /**
+     * Finds all items, whose boxes overlap the given sphere.
+     */
+    public Array<T> query(Vector3 center, float radius, Array<T> out) {
+        return query(null, null, center, radius, out);
+    }
+
+    /**
+     * Finds all items, whose boxes are hit by the ray.
+     *
+     * @param ray
+     *            the ray
+     * @param maxDistance
+     *            max distance along the ray
+     * @param out
+     *            hit items (unordered)
+     * @return out
+     */
+    @SuppressWarnings("unchecked")
+    public Array<T> query(Ray ray, float maxDistance, Array<T> out) {
+        if (root == NULL) return out;
+
+        final float ox = ray.origin.x, oy = ray.origin.y, oz = ray.origin.z;
+        final float ix = 1f / ray.direction.x, iy = 1f / ray.direction.y, iz = 1f / ray.direction.z;
+
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            final int node = stack[--top];
+            final int o = node * 6;
+
+            // slab test
+            float t0 = (bounds[o] - ox) * ix;
+            float t1 = (bounds[o + 3] - ox) * ix;
+            float tMin = Math.min(t0, t1);
+            float tMax = Math.max(t0, t1);
+            t0 = (bounds[o + 1] - oy) * iy;
+            t1 = (bounds[o + 4] - oy) * iy;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+            t0 = (bounds[o + 2] - oz) * iz;
+            t1 = (bounds[o + 5] - oz) * iz;
+            tMin = Math.max(tMin, Math.min(t0, t1));
+            tMax = Math.min(tMax, Math.max(t0, t1));
+            if (tMax < Math.max(0, tMin) || tMin > maxDistance) continue;
+
+            if (child1[node] == NULL) {
+                out.add((T) items[node]);
+            } else {
+                top = push(top, child1[node], child2[node]);
+            }
+        }
+
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Array<T> query(Frustum frustum, BoundingBox box, Vector3 center, float radius, Array<T> out) {
+        if (root == NULL) return out;
+
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            final int node = stack[--top];
+            final int o = node * 6;
+
+            final boolean overlaps;
+            if (frustum != null) {
+                final float hx = (bounds[o + 3] - bounds[o]) * 0.5f;
+                final float hy = (bounds[o + 4] - bounds[o + 1]) * 0.5f;
+                final float hz = (bounds[o + 5] - bounds[o + 2]) * 0.5f;
+                overlaps = frustum.boundsInFrustum(bounds[o] + hx, bounds[o + 1] + hy, bounds[o + 2] + hz, hx, hy, hz);
+            } else if (box != null) {
+                overlaps = bounds[o] <= box.max.x && bounds[o + 3] >= box.min.x && bounds[o + 1] <= box.max.y
+                        && bounds[o + 4] >= box.min.y && bounds[o + 2] <= box.max.z && bounds[o + 5] >= box.min.z;
+            } else {
+                final float dx = Math.max(0, Math.max(bounds[o] - center.x, center.x - bounds[o + 3]));
+                final float dy = Math.max(0, Math.max(bounds[o + 1] - center.y, center.y - bounds[o + 4]));
+                final float dz = Math.max(0, Math.max(bounds[o + 2] - center.z, center.z - bounds[o + 5]));
+                overlaps = dx * dx + dy * dy + dz * dz <= radius * radius;
+            }
+            if (!overlaps) continue;
+
+            if (child1[node] == NULL) {
+                out.add((T) items[node]);
+            } else {
+                top = push(top, child1[node], child2[node]);
+            }
+        }
+
+        return out;
+    }
+
+    private int push(int top, int a, int b) {
+        if (top + 2 > stack.length) {
+            final int[] grown = new int[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, top);
+            stack = grown;
+        }
+        stack[top++] = a;
+        stack[top++] = b;
+        return top;
+    }
+
+    private void setFatBounds(int node, BoundingBox box) {
+        final float mx = Math.max(MIN_MARGIN, (box.max.x - box.min.x) * MARGIN);
+        final float my = Math.max(MIN_MARGIN, (box.max.y - box.min.y) * MARGIN);
+        final float mz = Math.max(MIN_MARGIN, (box.max.z - box.min.z) * MARGIN);
+        final int o = node * 6;
+        bounds[o] = box.min.x - mx;
+        bounds[o + 1] = box.min.y - my;
+        bounds[o + 2] = box.min.z - mz;
+        bounds[o + 3] = box.max.x + mx;
+        bounds[o + 4] = box.max.y + my;
+        bounds[o + 5] = box.max.z + mz;
+    }
+
+    private void insertLeaf(int leaf) {
+        if (root == NULL) {
+            root = leaf;
+            parents[leaf] = NULL;
+            return;
+        }
+
+        // find the best sibling (surface area heuristic)
+        int index = root;
+        while (child1[index] != NULL) {
+            final int c1 = child1[index];
+            final int c2 = child2[index];
+
+            final float area = area(index, index);
+            final float combinedArea = area(index, leaf);
+            final float cost = 2 * combinedArea;
+            final float inheritanceCost = 2 * (combinedArea - area);
+
+            float cost1 = area(c1, leaf) + inheritanceCost;
+            if (child1[c1] != NULL) cost1 -= area(c1, c1);
+            float cost2 = area(c2, leaf) + inheritanceCost;
+            if (child1[c2] != NULL) cost2 -= area(c2, c2);
+
+            if (cost < cost1 && cost < cost2) break;
+            index = cost1 < cost2 ? c1 : c2;
+        }
+
+        final int sibling = index;
+        final int oldParent = parents[sibling];
+        final int newParent = allocate();
+        parents[newParent] = oldParent;
+        items[newParent] = null;
+        union(newParent, sibling, leaf);
+        heights[newParent] = heights[sibling] + 1;
+
+        if (oldParent != NULL) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parents[sibling] = newParent;
+        parents[leaf] = newParent;
+
+        refit(parents[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL;
+            return;
+        }
+
+        final int parent = parents[leaf];
+        final int grandParent = parents[parent];
+        final int sibling = child1[parent] == leaf ? child2[parent] : child1[parent];
+
+        if (grandParent != NULL) {
+            if (child1[grandParent] == parent) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parents[sibling] = grandParent;
+            release(parent);
+            refit(grandParent);
+        } else {
+            root = sibling;
+            parents[sibling] = NULL;
+            release(parent);
+        }
+    }
+
+    /**
+     * Rebalances & updates boxes and heights from the node up to the root.
+     */
+    private void refit(int index) {
+        while (index != NULL) {
+            index = balance(index);
+            final int c1 = child1[index];
+            final int c2 = child2[index];
+            heights[index] = 1 + Math.max(heights[c1], heights[c2]);
+            union(index, c1, c2);
+            index = parents[index];
+        }
+    }
+
+    /**
+     * Performs a left or right rotation, if node a is imbalanced.
+     *
+     * @return the new root of the subtree
+     */
+    private int balance(int a) {
+        if (child1[a] == NULL || heights[a] < 2) return a;
+
+        final int b = child1[a];
+        final int c = child2[a];
+        final int balance = heights[c] - heights[b];
+
+        if (balance > 1) {
+            // rotate c up
+            final int f = child1[c];
+            final int g = child2[c];
+            child1[c] = a;
+            parents[c] = parents[a];
+            parents[a] = c;
+            replaceChild(parents[c], a, c);
+
+            if (heights[f] > heights[g]) {
+                child2[c] = f;
+                child2[a] = g;
+                parents[g] = a;
+                union(a, b, g);
+                union(c, a, f);
+                heights[a] = 1 + Math.max(heights[b], heights[g]);
+                heights[c] = 1 + Math.max(heights[a], heights[f]);
+            } else {
+                child2[c] = g;
+                child2[a] = f;
+                parents[f] = a;
+                union(a, b, f);
+                union(c, a, g);
+                heights[a] = 1 + Math.max(heights[b], heights[f]);
+                heights[c] = 1 + Math.max(heights[a], heights[g]);
+            }
+            return c;
+        }
+
+        if (balance < -1) {
+            // rotate b up
+            final int d = child1[b];
+            final int e = child2[b];
+            child1[b] = a;
+            parents[b] = parents[a];
+            parents[a] = b;
+            replaceChild(parents[b], a, b);
+
+            if (heights[d] > heights[e]) {
+                child2[b] = d;
+                child1[a] = e;
+                parents[e] = a;
+                union(a, c, e);
+                union(b, a, d);
+                heights[a] = 1 + Math.max(heights[c], heights[e]);
+                heights[b] = 1 + Math.max(heights[a], heights[d]);
+            } else {
+                child2[b] = e;
+                child1[a] = d;
+                parents[d] = a;
+                union(a, c, d);
+                union(b, a, e);
+                heights[a] = 1 + Math.max(heights[c], heights[d]);
+                heights[b] = 1 + Math.max(heights[a], heights[e]);
+            }
+            return b;
+        }
+
+        return a;
+    }
+
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NULL) {
+            root = newChild;
+        } else if (child1[parent] == oldChild) {
+            child1[parent] = newChild;
+        } else {
+            child2[parent] = newChild;
+        }
+    }
+
+    /**
+     * Sets the box of node to the union of the boxes of a & b.
+     */
+    private void union(int node, int a, int b) {
+        final int o = node * 6, oa = a * 6, ob = b * 6;
+        bounds[o] = Math.min(bounds[oa], bounds[ob]);
+        bounds[o + 1] = Math.min(bounds[oa + 1], bounds[ob + 1]);
+        bounds[o + 2] = Math.min(bounds[oa + 2], bounds[ob + 2]);
+        bounds[o + 3] = Math.max(bounds[oa + 3], bounds[ob + 3]);
+        bounds[o + 4] = Math.max(bounds[oa + 4], bounds[ob + 4]);
+        bounds[o + 5] = Math.max(bounds[oa + 5], bounds[ob + 5]);
+    }
+
+    /**
+     * @return half the surface area of the union of the boxes of a & b
+     */
+    private float area(int a, int b) {
+        final int oa = a * 6, ob = b * 6;
+        final float dx = Math.max(bounds[oa + 3], bounds[ob + 3]) - Math.min(bounds[oa], bounds[ob]);
+        final float dy = Math.max(bounds[oa + 4], bounds[ob + 4]) - Math.min(bounds[oa + 1], bounds[ob + 1]);
+        final float dz = Math.max(bounds[oa + 5], bounds[ob + 5]) - Math.min(bounds[oa + 2], bounds[ob + 2]);
+        return dx * dy + dy * dz + dz * dx;
+    }
+
+    private int allocate() {
+        if (freeList == NULL) {
+            grow(capacity * 2);
+        }
+        final int node = freeList;
+        freeList = child1[node];
+        parents[node] = NULL;
+        child1[node] = NULL;
+        child2[node] = NULL;
+        heights[node] = 0;
+        return node;
+    }
+
+    private void release(int node) {
+        items[node] = null;
+        heights[node] = -1;
+        child1[node] = freeList;
+        freeList = node;
+    }
+
+    private void grow(int newCapacity) {
+        final float[] newBounds = new float[newCapacity * 6];
+        final int[] newParents = new int[newCapacity];
+        final int[] newChild1 = new int[newCapacity];
+        final int[] newChild2 = new int[newCapacity];
+        final int[] newHeights = new int[newCapacity];
+        final Object[] newItems = new Object[newCapacity];
+        if (capacity > 0) {
+            System.arraycopy(bounds, 0, newBounds, 0, capacity * 6);
+            System.arraycopy(parents, 0, newParents, 0, capacity);
+            System.arraycopy(child1, 0, newChild1, 0, capacity);
+            System.arraycopy(child2, 0, newChild2, 0, capacity);
+            System.arraycopy(heights, 0, newHeights, 0, capacity);
+            System.arraycopy(items, 0, newItems, 0, capacity);
+        }
+        bounds = newBounds;
+        parents = newParents;
+        child1 = newChild1;
+        child2 = newChild2;
+        heights = newHeights;
+        items = newItems;
+
+        // link the new nodes into the free list
+        for (int i = capacity; i < newCapacity - 1; i++) {
+            child1[i] = i + 1;
+            heights[i] = -1;
+        }
+        child1[newCapacity - 1] = freeList;
+        heights[newCapacity - 1] = -1;
+        freeList = capacity;
+        capacity = newCapacity;
+    }
+
+}
@@ -16,7 +16,9 @@
 
 package com.mbrlabs.mundus.commons.scene3d;
 
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
+import com.mbrlabs.mundus.commons.scene3d.components.Bounded;
 import com.mbrlabs.mundus.commons.scene3d.components.Component;
 import com.mbrlabs.mundus.commons.scene3d.traversal.DepthFirstIterator;
 
@@ -37,6 +39,13 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
 
     public final SceneGraph sceneGraph;
 
+    // bvh proxy of the scene graph or -1 if not bounded
+    int proxy = -1;
+    // last frame, in which the bounds were inside the camera frustum
+    int visibleFrame = -1;
+    // queued for a bounds refit
+    boolean boundsDirty;
+
     /**
      * @param sceneGraph
      *            scene graph
@@ -105,6 +114,26 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
         }
     }
 
+    /**
+     * Like render(), but skips the components of game objects, that have been
+     * culled in the given frame.
+     */
+    void renderVisible(float delta, int frame) {
+        if (active) {
+            if (proxy < 0 || visibleFrame == frame) {
+                for (Component component : this.components) {
+                    component.render(delta);
+                }
+            }
+
+            if (getChildren() != null) {
+                for (GameObject node : getChildren()) {
+                    node.renderVisible(delta, frame);
+                }
+            }
+        }
+    }
+
     /**
      * Calls the update() method for each component in this and all child nodes.
      *
@@ -190,6 +219,29 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
         return null;
     }
 
+    /**
+     * Calculates the union of the bounds of all components in local space.
+     *
+     * @param out
+     *            output box
+     * @return out or null if the game object has no components or at least
+     *         one of them has no bounds
+     */
+    public BoundingBox getLocalBounds(BoundingBox out) {
+        if (components.size == 0) return null;
+
+        out.inf();
+        for (int i = 0; i < components.size; i++) {
+            final Component component = components.get(i);
+            if (!(component instanceof Bounded)) return null;
+            final BoundingBox bounds = ((Bounded) component).getLocalBounds();
+            if (bounds == null) return null;
+            out.ext(bounds);
+        }
+
+        return out;
+    }
+
     /**
      * Returns all components of this go.
      * 
@@ -207,6 +259,7 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
      */
     public void removeComponent(Component component) {
         components.removeValue(component, true);
+        onTransformChanged();
     }
 
     /**
@@ -219,6 +272,7 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
     public void addComponent(Component component) throws InvalidComponentException {
         isComponentAddable(component);
         components.add(component);
+        onTransformChanged();
     }
 
     /**
@@ -236,6 +290,29 @@ public class GameObject extends SimpleNode<GameObject> implements Iterable<GameO
         }
     }
 
+    @Override
+    public void addChild(GameObject child) {
+        super.addChild(child);
+        if (sceneGraph != null && sceneGraph.isAttached(this)) {
+            sceneGraph.index(child);
+        }
+    }
+
+    @Override
+    protected void onTransformChanged() {
+        if (sceneGraph != null && sceneGraph.isAttached(this)) {
+            sceneGraph.invalidateBounds(this);
+        }
+    }
+
+    @Override
+    public void remove() {
+        if (sceneGraph != null && sceneGraph.isAttached(this)) {
+            sceneGraph.unindex(this);
+        }
+        super.remove();
+    }
+
     @Override
     public Iterator<GameObject> iterator() {
         return new DepthFirstIterator(this);
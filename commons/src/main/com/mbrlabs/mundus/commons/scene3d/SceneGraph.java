@@ -18,7 +18,12 @@ package com.mbrlabs.mundus.commons.scene3d;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.math.collision.Ray;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
 import com.mbrlabs.mundus.commons.Scene;
 
 /**
@@ -34,6 +39,19 @@ public class SceneGraph {
 
     private GameObject selected;
 
+    // id -> game object, for all game objects attached to the root
+    private final IntMap<GameObject> gameObjects = new IntMap<GameObject>();
+
+    private TransformStore transformStore;
+
+    // world bounds of all bounded game objects
+    private final DynamicBvh<GameObject> bvh = new DynamicBvh<GameObject>();
+    // game objects, whose subtree needs a bounds refit
+    private final Array<GameObject> moved = new Array<GameObject>(false, 16);
+    private final Array<GameObject> visible = new Array<GameObject>(false, 64);
+    private final BoundingBox tmpBounds = new BoundingBox();
+    private int frame;
+
     public SceneGraph(Scene scene) {
         root = new GameObject(this, null, -1);
         root.initChildrenArray();
@@ -45,19 +63,121 @@ public class SceneGraph {
         render(Gdx.graphics.getDeltaTime());
     }
 
+    /**
+     * Renders all active game objects. Game objects with bounds outside the
+     * camera frustum are culled.
+     */
     public void render(float delta) {
+        if (transformStore != null) transformStore.update();
+        refitBounds();
+
+        frame++;
+        visible.clear();
+        bvh.query(scene.cam.frustum, visible);
+        for (int i = 0; i < visible.size; i++) {
+            visible.get(i).visibleFrame = frame;
+        }
+
         batch.begin(scene.cam);
         for (GameObject go : root.getChildren()) {
-            go.render(delta);
+            go.renderVisible(delta, frame);
         }
         batch.end();
     }
 
+    /**
+     * @return number of bounded game objects inside the frustum in the last
+     *         render() call
+     */
+    public int getVisibleCount() {
+        return visible.size;
+    }
+
+    /**
+     * @return number of bounded game objects culled in the last render() call
+     */
+    public int getCulledCount() {
+        return bvh.size() - visible.size;
+    }
+
+    /**
+     * Finds all bounded game objects, that are (partially) inside the frustum.
+     * Game objects without bounds are never part of query results.
+     */
+    public Array<GameObject> query(Frustum frustum, Array<GameObject> out) {
+        refitBounds();
+        return bvh.query(frustum, out);
+    }
+
+    /**
+     * Finds all bounded game objects, whose bounds are hit by the ray.
+     */
+    public Array<GameObject> query(Ray ray, float maxDistance, Array<GameObject> out) {
+        refitBounds();
+        return bvh.query(ray, maxDistance, out);
+    }
+
+    /**
+     * Finds all bounded game objects, whose bounds overlap the box.
+     */
+    public Array<GameObject> query(BoundingBox box, Array<GameObject> out) {
+        refitBounds();
+        return bvh.query(box, out);
+    }
+
+    /**
+     * Finds all bounded game objects, whose bounds overlap the sphere.
+     */
+    public Array<GameObject> query(Vector3 center, float radius, Array<GameObject> out) {
+        refitBounds();
+        return bvh.query(center, radius, out);
+    }
+
+    /**
+     * Queues a bounds refit of the game object & all its children. Must be
+     * called, if the bounds of one of its components changed.
+     */
+    public void invalidateBounds(GameObject go) {
+        if (go.boundsDirty) return;
+        go.boundsDirty = true;
+        moved.add(go);
+    }
+
+    private void refitBounds() {
+        for (int i = 0; i < moved.size; i++) {
+            final GameObject go = moved.get(i);
+            go.boundsDirty = false;
+            if (!isAttached(go)) continue;
+            for (GameObject node : go) {
+                refitBounds(node);
+            }
+        }
+        moved.clear();
+    }
+
+    private void refitBounds(GameObject go) {
+        if (go.getLocalBounds(tmpBounds) == null) {
+            if (go.proxy >= 0) {
+                bvh.remove(go.proxy);
+                go.proxy = -1;
+            }
+            return;
+        }
+
+        tmpBounds.mul(go.getTransform());
+        if (go.proxy < 0) {
+            go.proxy = bvh.insert(tmpBounds, go);
+        } else {
+            bvh.update(go.proxy, tmpBounds);
+        }
+    }
+
     public void update() {
         update(Gdx.graphics.getDeltaTime());
     }
 
     public void update(float delta) {
+        if (transformStore != null) transformStore.update();
         for (GameObject go : root.getChildren()) {
             go.update(delta);
         }
@@ -71,6 +191,72 @@ public class SceneGraph {
         root.addChild(go);
     }
 
+    /**
+     * Moves the transforms of all game objects into a {@link TransformStore}.
+     * Game objects attached later are added to the store as well. World
+     * transforms are then updated in one batch per frame.
+     */
+    public void enableTransformStore() {
+        if (transformStore != null) return;
+
+        transformStore = new TransformStore(Math.max(64, gameObjects.size + 1));
+        for (GameObject node : root) {
+            node.attach(transformStore);
+        }
+    }
+
+    /**
+     * @return the transform store or null if not enabled
+     */
+    public TransformStore getTransformStore() {
+        return transformStore;
+    }
+
+    /**
+     * Finds a game object of this scene graph by its id.
+     *
+     * @param id
+     *            game object id
+     * @return game object or null if not part of the scene graph
+     */
+    public GameObject findById(int id) {
+        return gameObjects.get(id);
+    }
+
+    /**
+     * @return true if the game object is the root or attached to it
+     */
+    boolean isAttached(GameObject go) {
+        return go == root || gameObjects.get(go.id) == go;
+    }
+
+    /**
+     * Adds the game object & all its children to the id index.
+     */
+    void index(GameObject go) {
+        for (GameObject node : go) {
+            gameObjects.put(node.id, node);
+            if (transformStore != null) node.attach(transformStore);
+        }
+        invalidateBounds(go);
+    }
+
+    /**
+     * Removes the game object & all its children from the id index.
+     */
+    void unindex(GameObject go) {
+        for (GameObject node : go) {
+            if (gameObjects.get(node.id) == node) {
+                gameObjects.remove(node.id);
+            }
+            node.detach();
+            if (node.proxy >= 0) {
+                bvh.remove(node.proxy);
+                node.proxy = -1;
+            }
+        }
+    }
+
     public GameObject getSelected() {
         return selected;
     }
@@ -21,10 +21,15 @@ import com.badlogic.gdx.math.Quaternion;
 import com.badlogic.gdx.math.Vector3;
 
 /**
- * Very simple and incredible inefficient implementation of a scene graph node.
+ * Simple implementation of a scene graph node.
  *
- * Inefficient, because each call to getTransform() multiplies all parent
- * transformation matrices without caching them.
+ * The local & world transformation matrices are cached. Modifying the local
+ * transformation or the parent marks the world transform of the node & all
+ * its descendants dirty. Dirty matrices are recomputed lazily in
+ * getTransform().
+ *
+ * If the scene graph uses a {@link TransformStore}, attached nodes don't hold
+ * their own transform objects, but are views onto their slot in the store.
  *
  * @author Marcus Brummer
  * @version 09-06-2016
@@ -32,20 +37,33 @@ import com.badlogic.gdx.math.Vector3;
 public class SimpleNode<T extends SimpleNode> extends BaseNode<T> {
 
     static boolean WORLD_SPACE_TRANSFORM = true;
-    private static Matrix4 tempMat = new Matrix4();
 
+    private static final Vector3 tempVec = new Vector3();
+    private static final Quaternion tempQuat = new Quaternion();
+
+    // null while attached to a transform store
     private Vector3 localPosition;
     private Quaternion localRotation;
     private Vector3 localScale;
+    // translation * rotation * scale
+    private Matrix4 local;
 
     // root * p0 * p1 * localMat = combined (absolute transfrom)
-    private Matrix4 combined;
+    private final Matrix4 combined;
+
+    // if a node is dirty, all its descendants are dirty as well
+    private boolean localDirty = true;
+    private boolean worldDirty = true;
+
+    private TransformStore store;
+    private int slot = -1;
 
     public SimpleNode(int id) {
         super(id);
         localPosition = new Vector3();
         localRotation = new Quaternion();
         localScale = new Vector3(1, 1, 1);
+        local = new Matrix4();
         combined = new Matrix4();
     }
 
@@ -57,24 +75,72 @@ public class SimpleNode<T extends SimpleNode> extends BaseNode<T> {
      */
     public SimpleNode(SimpleNode simpleNode, int id) {
         super(id);
-        this.localPosition = new Vector3(simpleNode.localPosition);
-        this.localRotation = new Quaternion(simpleNode.localRotation);
-        this.localScale = new Vector3(simpleNode.localScale);
-        this.combined = new Matrix4(simpleNode.combined);
+        this.localPosition = simpleNode.getLocalPosition(new Vector3());
+        this.localRotation = simpleNode.getLocalRotation(new Quaternion());
+        this.localScale = simpleNode.getLocalScale(new Vector3());
+        this.local = new Matrix4();
+        this.combined = new Matrix4(simpleNode.getTransform());
+    }
+
+    /**
+     * Moves the transform of this node into a slot of the store. The parent
+     * must already be attached to the same store (or be null).
+     */
+    void attach(TransformStore store) {
+        if (this.store != null) return;
+
+        final int parentSlot = parent != null ? ((SimpleNode) parent).slot : -1;
+        slot = store.allocate(parentSlot);
+        store.setLocal(slot, localPosition.x, localPosition.y, localPosition.z, localRotation.x, localRotation.y,
+                localRotation.z, localRotation.w, localScale.x, localScale.y, localScale.z);
+        this.store = store;
+        localPosition = null;
+        localRotation = null;
+        localScale = null;
+        local = null;
+    }
+
+    /**
+     * Moves the transform of this node out of the store.
+     */
+    void detach() {
+        if (store == null) return;
+
+        localPosition = getLocalPosition(new Vector3());
+        localRotation = getLocalRotation(new Quaternion());
+        localScale = getLocalScale(new Vector3());
+        local = new Matrix4();
+        store.free(slot);
+        store = null;
+        slot = -1;
+        localDirty = true;
+        worldDirty = true;
     }
 
     @Override
     public Vector3 getLocalPosition(Vector3 out) {
+        if (store != null) {
+            final float[] p = store.positions;
+            return out.set(p[slot * 3], p[slot * 3 + 1], p[slot * 3 + 2]);
+        }
         return out.set(localPosition);
     }
 
     @Override
     public Quaternion getLocalRotation(Quaternion out) {
+        if (store != null) {
+            final float[] r = store.rotations;
+            return out.set(r[slot * 4], r[slot * 4 + 1], r[slot * 4 + 2], r[slot * 4 + 3]);
+        }
         return out.set(localRotation);
     }
 
     @Override
     public Vector3 getLocalScale(Vector3 out) {
+        if (store != null) {
+            final float[] s = store.scales;
+            return out.set(s[slot * 3], s[slot * 3 + 1], s[slot * 3 + 2]);
+        }
         return out.set(localScale);
     }
 
@@ -95,57 +161,171 @@ public class SimpleNode<T extends SimpleNode> extends BaseNode<T> {
 
     @Override
     public Matrix4 getTransform() {
-        if (parent == null) {
-            return combined.set(localPosition, localRotation, localScale);
+        if (store != null) {
+            store.update();
+            System.arraycopy(store.world, slot * 16, combined.val, 0, 16);
+            return combined;
+        }
+
+        if (worldDirty) {
+            if (localDirty) {
+                local.set(localPosition, localRotation, localScale);
+                localDirty = false;
+            }
+
+            if (parent == null) {
+                combined.set(local);
+            } else {
+                combined.set(parent.getTransform()).mul(local);
+            }
+            worldDirty = false;
+        }
+
+        return combined;
+    }
+
+    @Override
+    public void setParent(T parent) {
+        super.setParent(parent);
+        if (store != null) {
+            store.setParent(slot, parent != null ? ((SimpleNode) parent).slot : -1);
+        } else {
+            invalidateWorld();
+        }
+        onTransformChanged();
+    }
+
+    @Override
+    public void remove() {
+        super.remove();
+        if (store != null) {
+            store.setParent(slot, -1);
+        } else {
+            invalidateWorld();
         }
+        onTransformChanged();
+    }
+
+    private void invalidateLocal() {
+        localDirty = true;
+        invalidateWorld();
+        onTransformChanged();
+    }
 
-        combined.set(localPosition, localRotation, localScale);
-        return combined.mulLeft(parent.getTransform());
+    /**
+     * Called after the local transform or the parent of this node changed.
+     * The world transforms of all descendants have changed as well.
+     */
+    protected void onTransformChanged() {
+    }
+
+    /**
+     * Marks the world transform of this node & all its descendants dirty.
+     */
+    private void invalidateWorld() {
+        // descendants of a dirty node are already dirty
+        if (worldDirty) return;
+
+        worldDirty = true;
+        if (children != null) {
+            for (SimpleNode<?> child : children) {
+                child.invalidateWorld();
+            }
+        }
     }
 
     @Override
     public void translate(Vector3 v) {
-        localPosition.add(v);
+        translate(v.x, v.y, v.z);
     }
 
     @Override
     public void translate(float x, float y, float z) {
+        if (store != null) {
+            setLocalPosition(store.positions[slot * 3] + x, store.positions[slot * 3 + 1] + y,
+                    store.positions[slot * 3 + 2] + z);
+            return;
+        }
         localPosition.add(x, y, z);
+        invalidateLocal();
     }
 
     @Override
     public void rotate(Quaternion q) {
-        localRotation.mulLeft(q);
+        rotate(q.x, q.y, q.z, q.w);
     }
 
     @Override
     public void rotate(float x, float y, float z, float w) {
+        if (store != null) {
+            final Quaternion rotation = getLocalRotation(tempQuat).mulLeft(x, y, z, w);
+            setLocalRotation(rotation.x, rotation.y, rotation.z, rotation.w);
+            return;
+        }
         localRotation.mulLeft(x, y, z, w);
+        invalidateLocal();
     }
 
     @Override
     public void scale(Vector3 v) {
-        localScale.scl(v);
+        scale(v.x, v.y, v.z);
     }
 
     @Override
     public void scale(float x, float y, float z) {
+        if (store != null) {
+            final Vector3 scale = getLocalScale(tempVec).scl(x, y, z);
+            setLocalScale(scale.x, scale.y, scale.z);
+            return;
+        }
         localScale.scl(x, y, z);
+        invalidateLocal();
     }
 
     @Override
     public void setLocalPosition(float x, float y, float z) {
+        if (store != null) {
+            final float[] p = store.positions;
+            p[slot * 3] = x;
+            p[slot * 3 + 1] = y;
+            p[slot * 3 + 2] = z;
+            store.markDirty(slot);
+            onTransformChanged();
+            return;
+        }
         localPosition.set(x, y, z);
+        invalidateLocal();
     }
 
     @Override
     public void setLocalRotation(float x, float y, float z, float w) {
+        if (store != null) {
+            final float[] r = store.rotations;
+            r[slot * 4] = x;
+            r[slot * 4 + 1] = y;
+            r[slot * 4 + 2] = z;
+            r[slot * 4 + 3] = w;
+            store.markDirty(slot);
+            onTransformChanged();
+            return;
+        }
         localRotation.set(x, y, z, w);
+        invalidateLocal();
     }
 
     @Override
     public void setLocalScale(float x, float y, float z) {
+        if (store != null) {
+            final float[] s = store.scales;
+            s[slot * 3] = x;
+            s[slot * 3 + 1] = y;
+            s[slot * 3 + 2] = z;
+            store.markDirty(slot);
+            onTransformChanged();
+            return;
+        }
         localScale.set(x, y, z);
+        invalidateLocal();
     }
 
 }
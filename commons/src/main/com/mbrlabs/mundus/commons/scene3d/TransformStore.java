@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.scene3d;
+
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
+
+/**
+ * Structure of arrays storage for the transforms of many scene graph nodes.
+ *
+ * Every node gets a dense slot. Local positions, rotations & scales as well as
+ * the world matrices (column major, like Matrix4) of all slots are stored in
+ * contiguous float arrays. update() recomputes the world matrices of all
+ * modified slots and their descendants in one batch. Slots are processed in
+ * hierarchy order (level by level, parents before children) and the slots of a
+ * level are split across all cores.
+ *
+ * Nodes are attached to a store by their scene graph (see
+ * {@link SceneGraph#enableTransformStore()}). Attached nodes are views onto
+ * their slot.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TransformStore {
+
+    /** Minimal number of slots of a hierarchy level, that are worth a thread */
+    public static final int MIN_PARALLEL_CHUNK = 4096;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_PARENT = -1;
+    private static final int FREE = -2;
+
+    // local transforms
+    float[] positions;
+    float[] rotations;
+    float[] scales;
+    // world matrices, 16 floats per slot
+    float[] world;
+
+    private int[] parents;
+    private boolean[] localDirty;
+    private boolean[] changed;
+
+    private int size;
+    private int[] freeSlots;
+    private int freeCount;
+
+    // all used slots, sorted by hierarchy level
+    private int[] order;
+    private int[] levelStarts;
+    private int levelCount;
+    private int[] depths;
+
+    private boolean dirty;
+    private boolean orderDirty;
+
+    private final LevelTask levelTask = new LevelTask();
+
+    public TransformStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransformStore(int capacity) {
+        resize(Math.max(1, capacity));
+        freeSlots = new int[16];
+        levelStarts = new int[16];
+    }
+
+    /**
+     * Allocates a slot with identity transform.
+     *
+     * @param parentSlot
+     *            slot of the parent node or -1
+     * @return the new slot
+     */
+    public int allocate(int parentSlot) {
+        final int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (size == parents.length) {
+                resize(size * 2);
+            }
+            slot = size++;
+        }
+
+        setLocal(slot, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1);
+        parents[slot] = parentSlot;
+        orderDirty = true;
+        return slot;
+    }
+
+    /**
+     * Releases a slot. The slot must not be the parent of another slot.
+     */
+    public void free(int slot) {
+        parents[slot] = FREE;
+        if (freeCount == freeSlots.length) {
+            final int[] grown = new int[freeCount * 2];
+            System.arraycopy(freeSlots, 0, grown, 0, freeCount);
+            freeSlots = grown;
+        }
+        freeSlots[freeCount++] = slot;
+        orderDirty = true;
+    }
+
+    public void setParent(int slot, int parentSlot) {
+        parents[slot] = parentSlot;
+        markDirty(slot);
+        orderDirty = true;
+    }
+
+    public void setLocal(int slot, float px, float py, float pz, float rx, float ry, float rz, float rw, float sx,
+            float sy, float sz) {
+        positions[slot * 3] = px;
+        positions[slot * 3 + 1] = py;
+        positions[slot * 3 + 2] = pz;
+        rotations[slot * 4] = rx;
+        rotations[slot * 4 + 1] = ry;
+        rotations[slot * 4 + 2] = rz;
+        rotations[slot * 4 + 3] = rw;
+        scales[slot * 3] = sx;
+        scales[slot * 3 + 1] = sy;
+        scales[slot * 3 + 2] = sz;
+        markDirty(slot);
+    }
+
+    /**
+     * Marks the local transform of a slot as modified.
+     */
+    public void markDirty(int slot) {
+        localDirty[slot] = true;
+        dirty = true;
+    }
+
+    /**
+     * @return true if world matrices have to be updated
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return number of slots in use
+     */
+    public int size() {
+        return size - freeCount;
+    }
+
+    /**
+     * Recomputes the world matrices of all modified slots & their
+     * descendants.
+     */
+    public void update() {
+        if (!dirty) return;
+        if (orderDirty) {
+            sortByLevel();
+        }
+
+        for (int level = 0; level < levelCount; level++) {
+            levelTask.start = levelStarts[level];
+            final int end = level + 1 < levelCount ? levelStarts[level + 1] : size - freeCount;
+            ParallelUtils.forRange(end - levelTask.start, MIN_PARALLEL_CHUNK, levelTask);
+        }
+
+        dirty = false;
+    }
+
+    private class LevelTask implements ParallelUtils.RangeTask {
+        private int start;
+
+        @Override
+        public void run(int from, int to) {
+            for (int i = start + from; i < start + to; i++) {
+                final int slot = order[i];
+                final int parent = parents[slot];
+                final boolean modified = localDirty[slot] || (parent >= 0 && changed[parent]);
+                if (modified) {
+                    computeWorld(slot, parent);
+                    localDirty[slot] = false;
+                }
+                changed[slot] = modified;
+            }
+        }
+    }
+
+    /**
+     * world = parent world * translation * rotation * scale
+     */
+    private void computeWorld(int slot, int parent) {
+        final float tx = positions[slot * 3], ty = positions[slot * 3 + 1], tz = positions[slot * 3 + 2];
+        final float qx = rotations[slot * 4], qy = rotations[slot * 4 + 1], qz = rotations[slot * 4 + 2],
+                qw = rotations[slot * 4 + 3];
+        final float sx = scales[slot * 3], sy = scales[slot * 3 + 1], sz = scales[slot * 3 + 2];
+
+        // same as Matrix4.set(Vector3, Quaternion, Vector3)
+        final float xs = qx * 2f, ys = qy * 2f, zs = qz * 2f;
+        final float wx = qw * xs, wy = qw * ys, wz = qw * zs;
+        final float xx = qx * xs, xy = qx * ys, xz = qx * zs;
+        final float yy = qy * ys, yz = qy * zs, zz = qz * zs;
+
+        final float l00 = sx * (1f - (yy + zz)), l01 = sy * (xy - wz), l02 = sz * (xz + wy);
+        final float l10 = sx * (xy + wz), l11 = sy * (1f - (xx + zz)), l12 = sz * (yz - wx);
+        final float l20 = sx * (xz - wy), l21 = sy * (yz + wx), l22 = sz * (1f - (xx + yy));
+
+        final float[] w = world;
+        final int o = slot * 16;
+        if (parent < 0) {
+            w[o] = l00;
+            w[o + 1] = l10;
+            w[o + 2] = l20;
+            w[o + 3] = 0;
+            w[o + 4] = l01;
+            w[o + 5] = l11;
+            w[o + 6] = l21;
+            w[o + 7] = 0;
+            w[o + 8] = l02;
+            w[o + 9] = l12;
+            w[o + 10] = l22;
+            w[o + 11] = 0;
+            w[o + 12] = tx;
+            w[o + 13] = ty;
+            w[o + 14] = tz;
+            w[o + 15] = 1;
+            return;
+        }
+
+        // the bottom row of the local matrix is (0, 0, 0, 1)
+        final int p = parent * 16;
+        for (int row = 0; row < 4; row++) {
+            final float p0 = w[p + row], p1 = w[p + 4 + row], p2 = w[p + 8 + row], p3 = w[p + 12 + row];
+            w[o + row] = p0 * l00 + p1 * l10 + p2 * l20;
+            w[o + 4 + row] = p0 * l01 + p1 * l11 + p2 * l21;
+            w[o + 8 + row] = p0 * l02 + p1 * l12 + p2 * l22;
+            w[o + 12 + row] = p0 * tx + p1 * ty + p2 * tz + p3;
+        }
+    }
+
+    /**
+     * Counting sort of all used slots by their depth in the hierarchy.
+     */
+    private void sortByLevel() {
+        int maxDepth = -1;
+        for (int slot = 0; slot < size; slot++) {
+            depths[slot] = -1;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (parents[slot] != FREE) {
+                maxDepth = Math.max(maxDepth, depth(slot));
+            }
+        }
+
+        levelCount = maxDepth + 1;
+        if (levelStarts.length < levelCount + 1) {
+            levelStarts = new int[Math.max(levelCount + 1, levelStarts.length * 2)];
+        }
+        for (int level = 0; level <= levelCount; level++) {
+            levelStarts[level] = 0;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (parents[slot] != FREE) {
+                levelStarts[depths[slot] + 1]++;
+            }
+        }
+        for (int level = 1; level <= levelCount; level++) {
+            levelStarts[level] += levelStarts[level - 1];
+        }
+        // levelStarts[level] is used as insertion cursor & restored afterwards
+        for (int slot = 0; slot < size; slot++) {
+            if (parents[slot] != FREE) {
+                order[levelStarts[depths[slot]]++] = slot;
+            }
+        }
+        for (int level = levelCount; level > 0; level--) {
+            levelStarts[level] = levelStarts[level - 1];
+        }
+        levelStarts[0] = 0;
+
+        // all world matrices have to be recomputed after structural changes
+        for (int slot = 0; slot < size; slot++) {
+            localDirty[slot] = parents[slot] != FREE;
+        }
+        orderDirty = false;
+    }
+
+    private int depth(int slot) {
+        // walk up to the first slot with known depth
+        int known = slot;
+        int steps = 0;
+        while (known >= 0 && depths[known] < 0) {
+            known = parents[known];
+            steps++;
+        }
+        int depth = (known >= 0 ? depths[known] : -1) + steps;
+
+        // assign depths on the way up again
+        final int result = depth;
+        for (int s = slot; s >= 0 && depths[s] < 0; s = parents[s]) {
+            depths[s] = depth--;
+        }
+        return result;
+    }
+
+    private void resize(int capacity) {
+        positions = copy(positions, capacity * 3);
+        rotations = copy(rotations, capacity * 4);
+        scales = copy(scales, capacity * 3);
+        world = copy(world, capacity * 16);
+        parents = copy(parents, capacity);
+        depths = copy(depths, capacity);
+        order = copy(order, capacity);
+        localDirty = copy(localDirty, capacity);
+        changed = copy(changed, capacity);
+    }
+
+    private static float[] copy(float[] array, int length) {
+        final float[] result = new float[length];
+        if (array != null) System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+        return result;
+    }
+
+    private static int[] copy(int[] array, int length) {
+        final int[] result = new int[length];
+        if (array != null) System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+        return result;
+    }
+
+    private static boolean[] copy(boolean[] array, int length) {
+        final boolean[] result = new boolean[length];
+        if (array != null) System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+        return result;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.scene3d.components;
+
+import com.badlogic.gdx.math.collision.BoundingBox;
+
+/**
+ * Component with a known extent.
+ *
+ * Game objects, whose components are all bounded, are culled before
+ * rendering. Components without bounds are always rendered.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public interface Bounded {
+
+    /**
+     * @return bounding box in the local space of the game object or null if
+     *         unknown; must not be modified
+     */
+    BoundingBox getLocalBounds();
+
+}
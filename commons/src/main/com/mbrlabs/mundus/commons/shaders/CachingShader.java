@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.shaders;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GLTexture;
+import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+
+import java.util.Arrays;
+
+/**
+ * Base shader, that remembers the last value of every uniform and skips
+ * uploads of unchanged values.
+ *
+ * Uniform values are part of the program state, so they stay valid as long
+ * as only this shader uses its program. Texture bindings are only valid
+ * within one begin()/end() block: subclasses must call resetTextures() in
+ * begin().
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public abstract class CachingShader extends BaseShader {
+
+    /**
+     * Gets notified about every cached uniform update. For profiling.
+     */
+    public interface Instrumentation {
+        /**
+         * @param uniform
+         *            uniform id
+         * @param skipped
+         *            true if the GL call was skipped, false if it was issued
+         */
+        void onUniform(int uniform, boolean skipped);
+    }
+
+    /**
+     * Counts issued & skipped GL calls.
+     */
+    public static class Counter implements Instrumentation {
+        public int issued;
+        public int skipped;
+
+        @Override
+        public void onUniform(int uniform, boolean skipped) {
+            if (skipped) {
+                this.skipped++;
+            } else {
+                issued++;
+            }
+        }
+
+        public void reset() {
+            issued = 0;
+            skipped = 0;
+        }
+    }
+
+    // enough for a 4x4 matrix
+    private static final int STRIDE = 16;
+
+    private float[] values = new float[0];
+    private boolean[] valid = new boolean[0];
+    private final float[] tmp = new float[4];
+
+    // textures of the current begin()/end() block
+    private GLTexture[] textures = new GLTexture[0];
+    private int textureBindCount;
+
+    private Instrumentation instrumentation;
+
+    public void setInstrumentation(Instrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    public Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Forgets all texture bindings. Must be called, when the texture binder
+     * of the render context begins.
+     */
+    protected void resetTextures() {
+        Arrays.fill(textures, null);
+    }
+
+    protected final boolean setCached(int uniform, float value) {
+        if (!has(uniform)) return false;
+        tmp[0] = value;
+        if (update(uniform, tmp, 0, 1)) program.setUniformf(loc(uniform), value);
+        return true;
+    }
+
+    protected final boolean setCached(int uniform, int value) {
+        if (!has(uniform)) return false;
+        tmp[0] = value;
+        if (update(uniform, tmp, 0, 1)) program.setUniformi(loc(uniform), value);
+        return true;
+    }
+
+    protected final boolean setCached(int uniform, Vector2 value) {
+        if (!has(uniform)) return false;
+        tmp[0] = value.x;
+        tmp[1] = value.y;
+        if (update(uniform, tmp, 0, 2)) program.setUniformf(loc(uniform), value);
+        return true;
+    }
+
+    protected final boolean setCached(int uniform, Vector3 value) {
+        if (!has(uniform)) return false;
+        tmp[0] = value.x;
+        tmp[1] = value.y;
+        tmp[2] = value.z;
+        if (update(uniform, tmp, 0, 3)) program.setUniformf(loc(uniform), value);
+        return true;
+    }
+
+    protected final boolean setCached(int uniform, Color value) {
+        if (!has(uniform)) return false;
+        tmp[0] = value.r;
+        tmp[1] = value.g;
+        tmp[2] = value.b;
+        tmp[3] = value.a;
+        if (update(uniform, tmp, 0, 4)) program.setUniformf(loc(uniform), value);
+        return true;
+    }
+
+    protected final boolean setCached(int uniform, Matrix4 value) {
+        if (!has(uniform)) return false;
+        if (update(uniform, value.val, 0, 16)) program.setUniformMatrix(loc(uniform), value);
+        return true;
+    }
+
+    /**
+     * Binds the texture & sets the sampler uniform. Both are skipped, if the
+     * texture is still bound for this uniform.
+     */
+    protected final boolean setCached(int uniform, GLTexture texture) {
+        if (!has(uniform)) return false;
+
+        ensureCapacity(uniform);
+        // a new binding may have evicted any other texture
+        if (context.textureBinder.getBindCount() != textureBindCount) {
+            resetTextures();
+        }
+        if (textures[uniform] == texture) {
+            if (instrumentation != null) instrumentation.onUniform(uniform, true);
+            return true;
+        }
+
+        setCached(uniform, context.textureBinder.bind(texture));
+        textures[uniform] = texture;
+        textureBindCount = context.textureBinder.getBindCount();
+        return true;
+    }
+
+    /**
+     * Stores the new value.
+     *
+     * @return true if the value changed & has to be uploaded
+     */
+    private boolean update(int uniform, float[] value, int offset, int count) {
+        ensureCapacity(uniform);
+        final int o = uniform * STRIDE;
+
+        boolean same = valid[uniform];
+        for (int i = 0; same && i < count; i++) {
+            same = values[o + i] == value[offset + i];
+        }
+        if (instrumentation != null) instrumentation.onUniform(uniform, same);
+        if (same) return false;
+
+        System.arraycopy(value, offset, values, o, count);
+        valid[uniform] = true;
+        return true;
+    }
+
+    private void ensureCapacity(int uniform) {
+        if (uniform < valid.length) return;
+
+        final int size = uniform + 1;
+        values = Arrays.copyOf(values, size * STRIDE);
+        valid = Arrays.copyOf(valid, size);
+        textures = Arrays.copyOf(textures, size);
+    }
+
+}
@@ -22,7 +22,6 @@ import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.attributes.ColorAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
-import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
 import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.utils.Array;
@@ -30,13 +29,14 @@ import com.mbrlabs.mundus.commons.env.Fog;
 import com.mbrlabs.mundus.commons.env.MundusEnvironment;
 import com.mbrlabs.mundus.commons.env.lights.DirectionalLight;
 import com.mbrlabs.mundus.commons.env.lights.DirectionalLightsAttribute;
+import com.mbrlabs.mundus.commons.terrain.TerrainShader;
 import com.mbrlabs.mundus.commons.utils.ShaderUtils;
 
 /**
  * @author Marcus Brummer
  * @version 22-11-2015
  */
-public class EntityShader extends BaseShader {
+public class EntityShader extends CachingShader {
 
     private static final String VERTEX_SHADER = "com/mbrlabs/mundus/commons/shaders/entity.vert.glsl";
     private static final String FRAGMENT_SHADER = "com/mbrlabs/mundus/commons/shaders/entity.frag.glsl";
@@ -66,6 +66,9 @@ public class EntityShader extends BaseShader {
 
     private ShaderProgram program;
 
+    // environment, whose lights & fog have been set in this block
+    private MundusEnvironment environment;
+
     public EntityShader() {
         super();
         program = ShaderUtils.compile(VERTEX_SHADER, FRAGMENT_SHADER, true);
@@ -78,6 +81,7 @@ public class EntityShader extends BaseShader {
 
     @Override
     public int compareTo(Shader other) {
+        if (other instanceof TerrainShader) return -1;
         return 0;
     }
 
@@ -96,49 +100,57 @@ public class EntityShader extends BaseShader {
         this.context.setDepthMask(true);
 
         program.begin();
+        resetTextures();
+        environment = null;
 
-        set(UNIFORM_PROJ_VIEW_MATRIX, camera.combined);
-        set(UNIFORM_CAM_POS, camera.position);
+        setCached(UNIFORM_PROJ_VIEW_MATRIX, camera.combined);
+        setCached(UNIFORM_CAM_POS, camera.position);
     }
 
     @Override
     public void render(Renderable renderable) {
+        // the environment is the same for the whole frame
         final MundusEnvironment env = (MundusEnvironment) renderable.environment;
+        if (env != environment) {
+            setLights(env);
+            setFog(env);
+            environment = env;
+        }
 
-        setLights(env);
-        set(UNIFORM_TRANS_MATRIX, renderable.worldTransform);
+        setCached(UNIFORM_TRANS_MATRIX, renderable.worldTransform);
 
         // texture uniform
         TextureAttribute diffuseTexture = ((TextureAttribute) (renderable.material.get(TextureAttribute.Diffuse)));
         ColorAttribute diffuseColor = ((ColorAttribute) (renderable.material.get(ColorAttribute.Diffuse)));
 
         if (diffuseTexture != null) {
-            set(UNIFORM_MATERIAL_DIFFUSE_TEXTURE, diffuseTexture.textureDescription.texture);
-            set(UNIFORM_MATERIAL_DIFFUSE_USE_TEXTURE, 1);
+            setCached(UNIFORM_MATERIAL_DIFFUSE_TEXTURE, diffuseTexture.textureDescription.texture);
+            setCached(UNIFORM_MATERIAL_DIFFUSE_USE_TEXTURE, 1);
         } else {
-            set(UNIFORM_MATERIAL_DIFFUSE_COLOR, diffuseColor.color);
-            set(UNIFORM_MATERIAL_DIFFUSE_USE_TEXTURE, 0);
+            setCached(UNIFORM_MATERIAL_DIFFUSE_COLOR, diffuseColor.color);
+            setCached(UNIFORM_MATERIAL_DIFFUSE_USE_TEXTURE, 0);
         }
 
-        // Fog
+        // bind attributes, bind mesh & render; then unbinds everything
+        renderable.meshPart.render(program);
+    }
+
+    private void setFog(MundusEnvironment env) {
         final Fog fog = env.getFog();
         if (fog == null) {
-            set(UNIFORM_FOG_DENSITY, 0f);
-            set(UNIFORM_FOG_GRADIENT, 0f);
+            setCached(UNIFORM_FOG_DENSITY, 0f);
+            setCached(UNIFORM_FOG_GRADIENT, 0f);
         } else {
-            set(UNIFORM_FOG_DENSITY, fog.density);
-            set(UNIFORM_FOG_GRADIENT, fog.gradient);
-            set(UNIFORM_FOG_COLOR, fog.color);
+            setCached(UNIFORM_FOG_DENSITY, fog.density);
+            setCached(UNIFORM_FOG_GRADIENT, fog.gradient);
+            setCached(UNIFORM_FOG_COLOR, fog.color);
         }
-
-        // bind attributes, bind mesh & render; then unbinds everything
-        renderable.meshPart.render(program);
     }
 
     private void setLights(MundusEnvironment env) {
         // ambient
-        set(UNIFORM_AMBIENT_LIGHT_COLOR, env.getAmbientLight().color);
-        set(UNIFORM_AMBIENT_LIGHT_INTENSITY, env.getAmbientLight().intensity);
+        setCached(UNIFORM_AMBIENT_LIGHT_COLOR, env.getAmbientLight().color);
+        setCached(UNIFORM_AMBIENT_LIGHT_INTENSITY, env.getAmbientLight().intensity);
 
         // TODO light array for each light type
 
@@ -148,9 +160,9 @@ public class EntityShader extends BaseShader {
         final Array<DirectionalLight> dirLights = dirLightAttribs == null ? null : dirLightAttribs.lights;
         if (dirLights != null && dirLights.size > 0) {
             final DirectionalLight light = dirLights.first();
-            set(UNIFORM_DIRECTIONAL_LIGHT_COLOR, light.color);
-            set(UNIFORM_DIRECTIONAL_LIGHT_DIR, light.direction);
-            set(UNIFORM_DIRECTIONAL_LIGHT_INTENSITY, light.intensity);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_COLOR, light.color);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_DIR, light.direction);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_INTENSITY, light.intensity);
         }
 
         // TODO point lights, spot lights
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain;
+
+/**
+ * Height values quantized to 16 bit unsigned values, as used by the 16 bit
+ * encoding of .terra files.
+ *
+ * Heights are mapped linearly onto the range [offset, offset + 65535 *
+ * scale], which is chosen to fit the height values of the terrain. This halves
+ * the size of a float array at a bounded precision loss of scale / 2.
+ *
+ * Heights outside of the quantization range are clamped by set().
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class QuantizedHeightStorage {
+
+    public static final int MAX_VALUE = 0xffff;
+
+    private final short[] values;
+    private final float offset;
+    private final float scale;
+
+    /**
+     * @param values
+     *            quantized values (unsigned); used directly, not copied
+     * @param offset
+     *            height of value 0
+     * @param scale
+     *            height difference between two successive values
+     */
+    public QuantizedHeightStorage(short[] values, float offset, float scale) {
+        this.values = values;
+        this.offset = offset;
+        this.scale = scale;
+    }
+
+    /**
+     * Quantizes height values.
+     *
+     * @param heights
+     *            height values
+     * @param maxError
+     *            maximum allowed difference between a height value and its
+     *            quantized value
+     * @return quantized heights or null, if the height range is too large for
+     *         the requested precision
+     */
+    public static QuantizedHeightStorage quantize(float[] heights, float maxError) {
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (float h : heights) {
+            if (h < min) min = h;
+            if (h > max) max = h;
+        }
+        if (heights.length == 0) {
+            min = max = 0;
+        }
+
+        final float scale = (max - min) / MAX_VALUE;
+        final QuantizedHeightStorage storage = new QuantizedHeightStorage(new short[heights.length], min, scale);
+        for (int i = 0; i < heights.length; i++) {
+            storage.set(i, heights[i]);
+            // checked per value, because float rounding may add to scale / 2
+            if (Math.abs(storage.get(i) - heights[i]) > maxError) {
+                return null;
+            }
+        }
+
+        return storage;
+    }
+
+    /**
+     * @return number of height values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public float get(int index) {
+        return offset + (values[index] & MAX_VALUE) * scale;
+    }
+
+    public void set(int index, float height) {
+        if (scale == 0) {
+            values[index] = 0;
+            return;
+        }
+        final int value = Math.round((height - offset) / scale);
+        values[index] = (short) Math.max(0, Math.min(MAX_VALUE, value));
+    }
+
+    /**
+     * @return maximum difference between a stored & a returned height value
+     */
+    public float getMaxError() {
+        return scale * 0.5f;
+    }
+
+    /**
+     * @return quantized values (unsigned)
+     */
+    public short[] getValues() {
+        return values;
+    }
+
+    public float getOffset() {
+        return offset;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    /**
+     * Decodes all height values.
+     *
+     * @param out
+     *            array with at least size() elements
+     * @return out
+     */
+    public float[] toFloatArray(float[] out) {
+        for (int i = 0; i < values.length; i++) {
+            out[i] = offset + (values[i] & MAX_VALUE) * scale;
+        }
+        return out;
+    }
+
+}
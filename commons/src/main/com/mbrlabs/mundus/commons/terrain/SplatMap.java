@@ -16,12 +16,29 @@
 
 package com.mbrlabs.mundus.commons.terrain;
 
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.mbrlabs.mundus.commons.assets.PixmapTextureAsset;
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
+
+import java.nio.ByteBuffer;
 
 /**
+ * Changes to the pixmap are not uploaded to the texture immediately. Callers
+ * mark the modified region with markDirty(). All marked regions are merged
+ * into one rectangle, which is uploaded with flush(). Owners flush the
+ * splatmap once per frame, before the terrain is rendered, so several
+ * modifications per frame cause only one upload. flush() binds the texture
+ * directly and must not be called while a shader is rendering, because it
+ * bypasses the texture binder of the render context.
+ *
+ * Channel operations work directly on the RGBA8888 pixel buffer of the
+ * pixmap. Bulk operations over the whole map are split across cores.
+ *
  * @author Marcus Brummer
  * @version 31-01-2016
  */
@@ -29,12 +46,22 @@ public class SplatMap {
 
     public static final int DEFAULT_SIZE = 512;
 
+    // RGBA8888
+    private static final int BYTES_PER_PIXEL = 4;
+    // minimal number of rows per thread
+    private static final int ROWS_PER_TASK = 64;
+
     private int width;
     private int height;
 
     private PixmapTextureAsset pixmapAsset;
 
-    private final Color c0 = new Color();
+    // pixmap region, that has not been uploaded yet (inclusive)
+    private int dirtyMinX;
+    private int dirtyMinY;
+    private int dirtyMaxX;
+    private int dirtyMaxY;
+    private ByteBuffer uploadBuffer;
 
     public SplatMap(PixmapTextureAsset asset) {
         Pixmap.setBlending(Pixmap.Blending.None);
@@ -43,6 +70,10 @@ public class SplatMap {
 
         this.width = asset.getPixmap().getWidth();
         this.height = asset.getPixmap().getHeight();
+        if (asset.getPixmap().getFormat() != Pixmap.Format.RGBA8888) {
+            throw new GdxRuntimeException("Splatmap must be RGBA8888: " + asset.getFile().path());
+        }
+        resetDirtyRegion();
     }
 
     public Texture getTexture() {
@@ -54,22 +85,133 @@ public class SplatMap {
     }
 
     public void clearChannel(SplatTexture.Channel channel) {
-        Pixmap pixmap = getPixmap();
-        for (int smX = 0; smX < pixmap.getWidth(); smX++) {
-            for (int smY = 0; smY < pixmap.getHeight(); smY++) {
-                c0.set(pixmap.getPixel(smX, smY));
-                if (channel == SplatTexture.Channel.R) {
-                    c0.set(0, c0.g, c0.b, c0.a);
-                } else if (channel == SplatTexture.Channel.G) {
-                    c0.set(c0.r, 0, c0.b, c0.a);
-                } else if (channel == SplatTexture.Channel.B) {
-                    c0.set(c0.r, c0.g, 0, c0.a);
-                } else if (channel == SplatTexture.Channel.A) {
-                    c0.set(c0.r, c0.g, c0.b, 0);
+        fillChannel(channel, 0);
+    }
+
+    /**
+     * Sets a channel of every pixel to the same value. The base channel has
+     * no own color channel & is ignored.
+     *
+     * @param value
+     *            channel value in [0, 1]
+     */
+    public void fillChannel(SplatTexture.Channel channel, float value) {
+        final int channelOffset = getChannelOffset(channel);
+        if (channelOffset < 0) return;
+
+        final byte v = (byte) (Math.max(0, Math.min(1, value)) * 255);
+        final ByteBuffer pixels = getPixmap().getPixels();
+        final int rowSize = width * BYTES_PER_PIXEL;
+        ParallelUtils.forRange(height, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from * rowSize + channelOffset; i < to * rowSize; i += BYTES_PER_PIXEL) {
+                    pixels.put(i, v);
+                }
+            }
+        });
+        markDirty();
+    }
+
+    /**
+     * Scales down the channels of every pixel, whose channel sum is greater
+     * than 1.
+     */
+    public void normalizeWeights() {
+        final ByteBuffer pixels = getPixmap().getPixels();
+        final int rowSize = width * BYTES_PER_PIXEL;
+        ParallelUtils.forRange(height, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from * rowSize; i < to * rowSize; i += BYTES_PER_PIXEL) {
+                    putPixel(pixels, i, blend(getPixel(pixels, i), 0, 0));
                 }
-                pixmap.drawPixel(smX, smY, Color.rgba8888(c0));
             }
+        });
+        markDirty();
+    }
+
+    /**
+     * Additively blends a mask into a channel.
+     *
+     * @param mask
+     *            mask values, row by row
+     * @param x
+     *            splatmap position of the first mask value
+     * @param y
+     *            splatmap position of the first mask value
+     * @param maskWidth
+     *            width of the mask
+     * @param maskHeight
+     *            height of the mask
+     * @param strength
+     *            factor for all mask values
+     */
+    public void blendMask(final SplatTexture.Channel channel, final float[] mask, final int x, final int y,
+            final int maskWidth, final int maskHeight, final float strength) {
+        final int minX = Math.max(0, x);
+        final int minY = Math.max(0, y);
+        final int maxX = Math.min(width, x + maskWidth);
+        final int maxY = Math.min(height, y + maskHeight);
+        if (minX >= maxX || minY >= maxY) return;
+
+        final int channelOffset = getChannelOffset(channel);
+        final ByteBuffer pixels = getPixmap().getPixels();
+        ParallelUtils.forRange(maxY - minY, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int row = minY + from; row < minY + to; row++) {
+                    for (int col = minX; col < maxX; col++) {
+                        final float amount = mask[(row - y) * maskWidth + col - x] * strength;
+                        final int i = (row * width + col) * BYTES_PER_PIXEL;
+                        putPixel(pixels, i, blend(getPixel(pixels, i), channelOffset, amount));
+                    }
+                }
+            }
+        });
+        markDirty(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    /**
+     * Additively blends a value into a channel of a single pixel.
+     */
+    public void additiveBlend(int x, int y, SplatTexture.Channel channel, float strength) {
+        final ByteBuffer pixels = getPixmap().getPixels();
+        final int i = (y * width + x) * BYTES_PER_PIXEL;
+        putPixel(pixels, i, blend(getPixel(pixels, i), getChannelOffset(channel), strength));
+        markDirty(x, y, 1, 1);
+    }
+
+    /**
+     * Copies a region of another pixmap to the same position of this
+     * splatmap.
+     *
+     * @param source
+     *            RGBA8888 pixmap with the size of this splatmap
+     */
+    public void copyRegion(Pixmap source, int x, int y, int width, int height) {
+        if (source.getWidth() != this.width || source.getHeight() != this.height
+                || source.getFormat() != Pixmap.Format.RGBA8888) {
+            throw new GdxRuntimeException("Source pixmap does not match the splatmap");
+        }
+        final int minX = Math.max(0, x);
+        final int minY = Math.max(0, y);
+        final int maxX = Math.min(this.width, x + width);
+        final int maxY = Math.min(this.height, y + height);
+        if (minX >= maxX || minY >= maxY) return;
+
+        final ByteBuffer src = source.getPixels().duplicate();
+        final ByteBuffer dst = getPixmap().getPixels().duplicate();
+        final int rowSize = (maxX - minX) * BYTES_PER_PIXEL;
+        for (int row = minY; row < maxY; row++) {
+            final int start = (row * this.width + minX) * BYTES_PER_PIXEL;
+            src.limit(src.capacity());
+            src.position(start);
+            src.limit(start + rowSize);
+            dst.position(start);
+            dst.put(src);
         }
+        markDirty(minX, minY, maxX - minX, maxY - minY);
     }
 
     public void clear() {
@@ -79,8 +221,82 @@ public class SplatMap {
         updateTexture();
     }
 
+    /**
+     * Uploads the whole pixmap immediately.
+     */
     public void updateTexture() {
-        getTexture().draw(getPixmap(), 0, 0);
+        markDirty();
+        flush();
+    }
+
+    /**
+     * Marks the whole pixmap as modified.
+     */
+    public void markDirty() {
+        markDirty(0, 0, width, height);
+    }
+
+    /**
+     * Marks a region of the pixmap as modified. It will be uploaded with the
+     * next flush().
+     */
+    public void markDirty(int x, int y, int width, int height) {
+        dirtyMinX = Math.max(0, Math.min(dirtyMinX, x));
+        dirtyMinY = Math.max(0, Math.min(dirtyMinY, y));
+        dirtyMaxX = Math.min(this.width - 1, Math.max(dirtyMaxX, x + width - 1));
+        dirtyMaxY = Math.min(this.height - 1, Math.max(dirtyMaxY, y + height - 1));
+    }
+
+    public boolean isDirty() {
+        return dirtyMinX <= dirtyMaxX && dirtyMinY <= dirtyMaxY;
+    }
+
+    /**
+     * Uploads the modified region of the pixmap to the texture.
+     */
+    public void flush() {
+        if (!isDirty()) return;
+
+        final Pixmap pixmap = getPixmap();
+        final int w = dirtyMaxX - dirtyMinX + 1;
+        final int h = dirtyMaxY - dirtyMinY + 1;
+        if (w == width && h == height) {
+            getTexture().draw(pixmap, 0, 0);
+            resetDirtyRegion();
+            return;
+        }
+
+        // copy the rows of the region into a continuous buffer
+        final ByteBuffer pixels = pixmap.getPixels();
+        final int bytesPerPixel = pixels.capacity() / (width * height);
+        final int rowSize = w * bytesPerPixel;
+        if (uploadBuffer == null || uploadBuffer.capacity() < rowSize * h) {
+            uploadBuffer = BufferUtils.newByteBuffer(rowSize * h);
+        }
+        uploadBuffer.clear();
+        final ByteBuffer src = pixels.duplicate();
+        for (int y = dirtyMinY; y <= dirtyMaxY; y++) {
+            final int start = (y * width + dirtyMinX) * bytesPerPixel;
+            src.limit(src.capacity());
+            src.position(start);
+            src.limit(start + rowSize);
+            uploadBuffer.put(src);
+        }
+        uploadBuffer.flip();
+
+        getTexture().bind();
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+        Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, dirtyMinX, dirtyMinY, w, h, pixmap.getGLFormat(),
+                pixmap.getGLType(), uploadBuffer);
+
+        resetDirtyRegion();
+    }
+
+    private void resetDirtyRegion() {
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = -1;
+        dirtyMaxY = -1;
     }
 
     public int getHeight() {
@@ -92,30 +308,80 @@ public class SplatMap {
     }
 
     public int additiveBlend(int pixelColor, SplatTexture.Channel channel, float strength) {
-        c0.set(pixelColor);
-        if (channel == SplatTexture.Channel.BASE) {
-            c0.sub(strength, strength, strength, strength);
-        } else if (channel == SplatTexture.Channel.R) {
-            c0.add(strength, 0, 0, 0);
-        } else if (channel == SplatTexture.Channel.G) {
-            c0.add(0, strength, 0, 0);
-        } else if (channel == SplatTexture.Channel.B) {
-            c0.add(0, 0, strength, 0);
-        } else if (channel == SplatTexture.Channel.A) {
-            c0.add(0, 0, 0, strength);
+        return blend(pixelColor, getChannelOffset(channel), strength);
+    }
+
+    /**
+     * @return byte offset of the channel within a pixel or -1 for the base
+     *         channel
+     */
+    private static int getChannelOffset(SplatTexture.Channel channel) {
+        switch (channel) {
+        case R:
+            return 0;
+        case G:
+            return 1;
+        case B:
+            return 2;
+        case A:
+            return 3;
+        default:
+            return -1;
+        }
+    }
+
+    private static int getPixel(ByteBuffer pixels, int i) {
+        return (pixels.get(i) & 0xff) << 24 | (pixels.get(i + 1) & 0xff) << 16 | (pixels.get(i + 2) & 0xff) << 8
+                | (pixels.get(i + 3) & 0xff);
+    }
+
+    private static void putPixel(ByteBuffer pixels, int i, int rgba) {
+        pixels.put(i, (byte) (rgba >>> 24));
+        pixels.put(i + 1, (byte) (rgba >>> 16));
+        pixels.put(i + 2, (byte) (rgba >>> 8));
+        pixels.put(i + 3, (byte) rgba);
+    }
+
+    /**
+     * Adds strength to a channel of a RGBA8888 color (subtracts it from all
+     * channels for the base channel) and prevents the channel sum to be
+     * greater than 1.
+     */
+    private static int blend(int rgba, int channelOffset, float strength) {
+        float r = ((rgba >>> 24) & 0xff) / 255f;
+        float g = ((rgba >>> 16) & 0xff) / 255f;
+        float b = ((rgba >>> 8) & 0xff) / 255f;
+        float a = (rgba & 0xff) / 255f;
+        if (channelOffset < 0) {
+            r = clamp(r - strength);
+            g = clamp(g - strength);
+            b = clamp(b - strength);
+            a = clamp(a - strength);
+        } else if (channelOffset == 0) {
+            r = clamp(r + strength);
+        } else if (channelOffset == 1) {
+            g = clamp(g + strength);
+        } else if (channelOffset == 2) {
+            b = clamp(b + strength);
+        } else {
+            a = clamp(a + strength);
         }
 
         // prevent the sum to be greater than 1
-        final float sum = c0.r + c0.g + c0.b + c0.a;
+        final float sum = r + g + b + a;
         if (sum > 1f) {
             final float correction = 1f / sum;
-            c0.r *= correction;
-            c0.g *= correction;
-            c0.b *= correction;
-            c0.a *= correction;
+            r *= correction;
+            g *= correction;
+            b *= correction;
+            a *= correction;
         }
 
-        return Color.rgba8888(c0);
+        return ((int) (r * 255) << 24) | ((int) (g * 255) << 16) | ((int) (b * 255) << 8) | (int) (a * 255);
+    }
+
+    private static float clamp(float value) {
+        return value < 0 ? 0 : (value > 1 ? 1 : value);
     }
 
 }
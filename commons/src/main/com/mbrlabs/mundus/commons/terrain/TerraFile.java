@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.terrain;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads & writes .terra height field files.
+ *
+ * Version 2 files start with a fixed size header, followed by the
+ * uncompressed, little endian height values (row by row):
+ *
+ * <pre>
+ * int   magic ('TRRA')
+ * int   version
+ * int   vertex resolution
+ * float world size
+ * int   height encoding
+ * </pre>
+ *
+ * With the 16 bit encoding the header is followed by the float offset & scale
+ * of the quantization and unsigned shorts instead of floats (see
+ * {@link QuantizedHeightStorage}).
+ *
+ * Legacy files (version 1) have no header and contain gzipped big endian
+ * floats. They are still read transparently.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerraFile {
+
+    public static final int MAGIC = 0x41525254; // 'TRRA' in little endian
+    public static final int VERSION = 2;
+    public static final int HEADER_SIZE = 20;
+
+    /** Heights are stored as 32 bit floats */
+    public static final int ENCODING_FLOAT32 = 0;
+    /** Heights are stored as quantized 16 bit unsigned values */
+    public static final int ENCODING_UINT16 = 1;
+
+    // first two bytes of every gzip stream
+    private static final int GZIP_MAGIC_0 = 0x1f;
+    private static final int GZIP_MAGIC_1 = 0x8b;
+
+    /**
+     * Reads the height values of a .terra file (version 1 or 2).
+     *
+     * @param file
+     *            the .terra file
+     * @return height values, row by row
+     */
+    public static float[] read(FileHandle file) {
+        try {
+            final ByteBuffer buffer = readFully(file);
+            if (buffer.remaining() >= 2 && (buffer.get(0) & 0xff) == GZIP_MAGIC_0
+                    && (buffer.get(1) & 0xff) == GZIP_MAGIC_1) {
+                return readLegacy(buffer);
+            }
+
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new GdxRuntimeException("Not a terra file: " + file.path());
+            }
+            final int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new GdxRuntimeException("Unsupported terra file version " + version + ": " + file.path());
+            }
+            final int resolution = buffer.getInt();
+            buffer.getFloat(); // world size
+            final int encoding = buffer.getInt();
+
+            final float[] data = new float[resolution * resolution];
+            if (encoding == ENCODING_FLOAT32) {
+                buffer.asFloatBuffer().get(data);
+            } else if (encoding == ENCODING_UINT16) {
+                final float offset = buffer.getFloat();
+                final float scale = buffer.getFloat();
+                final short[] values = new short[data.length];
+                buffer.asShortBuffer().get(values);
+                new QuantizedHeightStorage(values, offset, scale).toFloatArray(data);
+            } else {
+                throw new GdxRuntimeException("Unknown terra height encoding " + encoding + ": " + file.path());
+            }
+
+            return data;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading terra file: " + file.path(), e);
+        } catch (BufferUnderflowException e) {
+            throw new GdxRuntimeException("Truncated terra file: " + file.path(), e);
+        }
+    }
+
+    /**
+     * Writes height values as .terra file (version 2).
+     *
+     * @param file
+     *            target file; will be overwritten
+     * @param data
+     *            height values, row by row
+     * @param worldSize
+     *            size of the terrain in world units
+     */
+    public static void write(File file, float[] data, float worldSize) throws IOException {
+        write(file, data, worldSize, 0);
+    }
+
+    /**
+     * Writes height values as .terra file (version 2).
+     *
+     * Heights are stored with 16 bit, if every value can be quantized within
+     * the given error. Otherwise they are stored losslessly as floats.
+     *
+     * @param file
+     *            target file; will be overwritten
+     * @param data
+     *            height values, row by row
+     * @param worldSize
+     *            size of the terrain in world units
+     * @param maxError
+     *            maximum allowed height error; 0 to always store losslessly
+     */
+    public static void write(File file, float[] data, float worldSize, float maxError) throws IOException {
+        final QuantizedHeightStorage quantized = maxError > 0 ? QuantizedHeightStorage.quantize(data, maxError) : null;
+        final int resolution = (int) Math.sqrt(data.length);
+
+        final ByteBuffer buffer;
+        if (quantized != null) {
+            buffer = ByteBuffer.allocate(HEADER_SIZE + 8 + data.length * 2);
+            writeHeader(buffer, resolution, worldSize, ENCODING_UINT16);
+            buffer.putFloat(quantized.getOffset());
+            buffer.putFloat(quantized.getScale());
+            buffer.asShortBuffer().put(quantized.getValues());
+        } else {
+            buffer = ByteBuffer.allocate(HEADER_SIZE + data.length * 4);
+            writeHeader(buffer, resolution, worldSize, ENCODING_FLOAT32);
+            buffer.asFloatBuffer().put(data);
+        }
+        buffer.position(0);
+
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            final FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int resolution, float worldSize, int encoding) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(resolution);
+        buffer.putFloat(worldSize);
+        buffer.putInt(encoding);
+    }
+
+    /**
+     * Reads the whole file with a single bulk read, if it is on the file
+     * system. Classpath & internal files are read through their stream.
+     */
+    private static ByteBuffer readFully(FileHandle file) throws IOException {
+        if (file.type() == Files.FileType.Classpath || file.type() == Files.FileType.Internal) {
+            return ByteBuffer.wrap(file.readBytes());
+        }
+
+        FileInputStream in = null;
+        try {
+            in = new FileInputStream(file.file());
+            final FileChannel channel = in.getChannel();
+            final ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+            return buffer;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    private static float[] readLegacy(ByteBuffer buffer) throws IOException {
+        final FloatArray floatArray = new FloatArray();
+        InputStream is = null;
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(
+                    new ByteArrayInputStream(buffer.array(), buffer.arrayOffset(), buffer.remaining()))));
+            is = in;
+            while (true) {
+                floatArray.add(in.readFloat());
+            }
+        } catch (EOFException e) {
+            // end of height data
+        } finally {
+            StreamUtils.closeQuietly(is);
+        }
+
+        return floatArray.toArray();
+    }
+
+}
@@ -16,17 +16,15 @@
 
 package com.mbrlabs.mundus.commons.terrain;
 
-import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Material;
 import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.RenderableProvider;
-import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.graphics.g3d.model.NodePart;
 import com.badlogic.gdx.graphics.g3d.utils.MeshBuilder;
-import com.badlogic.gdx.graphics.g3d.utils.MeshPartBuilder;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
@@ -36,6 +34,7 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Pool;
 import com.mbrlabs.mundus.commons.utils.MathUtils;
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
 
 /**
  * @author Marcus Brummer
@@ -46,22 +45,24 @@ public class Terrain implements RenderableProvider, Disposable {
     public static final int DEFAULT_SIZE = 800;
     public static final int DEFAULT_VERTEX_RESOLUTION = 180;
 
-    private static final MeshPartBuilder.VertexInfo tempVertexInfo = new MeshPartBuilder.VertexInfo();
+    // sample batches smaller than this are not worth a separate thread
+    private static final int PARALLEL_SAMPLE_BATCH = 16384;
+
     private static final Vector3 c00 = new Vector3();
-    private static final Vector3 c01 = new Vector3();
-    private static final Vector3 c10 = new Vector3();
-    private static final Vector3 c11 = new Vector3();
 
     public Matrix4 transform;
     public float[] heightData;
     public int terrainWidth = 1200;
     public int terrainDepth = 1200;
     public int vertexResolution;
+    /** Distance up to which patches are rendered with full detail */
+    public float lodDistance;
+    // detail levels are selected for this camera in getRenderables()
+    private Camera lodCamera;
 
     // used for building the mesh
     private VertexAttributes attribs;
     private final Vector2 uvScale = new Vector2(60, 60);
-    private float vertices[];
     private int stride;
     private int posPos;
     private int norPos;
@@ -74,9 +75,11 @@ public class Terrain implements RenderableProvider, Disposable {
     // Mesh
     private Model model;
     public ModelInstance modelInstance;
-    private Mesh mesh;
+    private TerrainPatch[] patches;
+    private TerrainQuadTree quadTree;
+    private final Array<TerrainPatch> dirtyPatches = new Array<TerrainPatch>();
 
-    private Terrain(int vertexResolution) {
+    public Terrain(int size, float[] heightData) {
         this.transform = new Matrix4();
         this.attribs = MeshBuilder.createAttributes(VertexAttributes.Usage.Position | VertexAttributes.Usage.Normal
                 | VertexAttributes.Usage.TextureCoordinates);
@@ -85,8 +88,10 @@ public class Terrain implements RenderableProvider, Disposable {
         this.uvPos = attribs.getOffset(VertexAttributes.Usage.TextureCoordinates, -1);
         this.stride = attribs.vertexSize / 4;
 
-        this.vertexResolution = vertexResolution;
-        this.heightData = new float[vertexResolution * vertexResolution];
+        this.vertexResolution = (int) Math.sqrt(heightData.length);
+        this.heightData = heightData;
+        this.terrainWidth = size;
+        this.terrainDepth = size;
 
         this.terrainTexture = new TerrainTexture();
         this.terrainTexture.setTerrain(this);
@@ -94,36 +99,115 @@ public class Terrain implements RenderableProvider, Disposable {
         material.set(new TerrainTextureAttribute(TerrainTextureAttribute.ATTRIBUTE_SPLAT0, terrainTexture));
     }
 
-    public Terrain(int size, float[] heightData) {
-        this((int) Math.sqrt(heightData.length));
-        this.terrainWidth = size;
-        this.terrainDepth = size;
-        this.heightData = heightData;
-    }
-
     public void setTransform(Matrix4 transform) {
         this.transform = transform;
         modelInstance.transform = this.transform;
     }
 
     public void init() {
-        final int numVertices = this.vertexResolution * vertexResolution;
-        final int numIndices = (this.vertexResolution - 1) * (vertexResolution - 1) * 6;
+        final int cells = vertexResolution - 1;
+        final int patchesPerSide = (cells + TerrainPatch.PATCH_SIZE - 1) / TerrainPatch.PATCH_SIZE;
+        patches = new TerrainPatch[patchesPerSide * patchesPerSide];
+        quadTree = new TerrainQuadTree(this);
 
-        mesh = new Mesh(true, numVertices, numIndices, attribs);
-        this.vertices = new float[numVertices * stride];
-        mesh.setIndices(buildIndices());
-        buildVertices();
-        mesh.setVertices(vertices);
-
-        MeshPart meshPart = new MeshPart(null, mesh, 0, numIndices, GL20.GL_TRIANGLES);
-        meshPart.update();
         ModelBuilder mb = new ModelBuilder();
         mb.begin();
-        mb.part(meshPart, material);
+        dirtyPatches.clear();
+        int i = 0;
+        for (int pz = 0; pz < patchesPerSide; pz++) {
+            for (int px = 0; px < patchesPerSide; px++) {
+                final int startX = px * TerrainPatch.PATCH_SIZE;
+                final int startZ = pz * TerrainPatch.PATCH_SIZE;
+                final int width = Math.min(TerrainPatch.PATCH_SIZE, cells - startX) + 1;
+                final int depth = Math.min(TerrainPatch.PATCH_SIZE, cells - startZ) + 1;
+
+                final TerrainPatch patch = new TerrainPatch(startX, startZ, width, depth, vertexResolution,
+                        attribs);
+                patches[i++] = patch;
+                dirtyPatches.add(patch);
+            }
+        }
+
+        buildPatches(0, 0, cells, cells);
+        for (TerrainPatch patch : patches) {
+            patch.mesh.setVertices(patch.vertices);
+            mb.part(patch.meshPart, material);
+        }
         model = mb.end();
         modelInstance = new ModelInstance(model);
         modelInstance.transform = transform;
+
+        // the model instance works on copies of the mesh parts
+        final Array<NodePart> parts = modelInstance.nodes.first().parts;
+        for (i = 0; i < patches.length; i++) {
+            patches[i].meshPart = parts.get(i).meshPart;
+        }
+
+        if (lodDistance <= 0) {
+            lodDistance = TerrainPatch.PATCH_SIZE * terrainWidth / (float) cells;
+        }
+    }
+
+    /**
+     * Selects the detail level of every patch, based on the distance between
+     * the camera and the patch.
+     *
+     * Patches closer than lodDistance are rendered with full detail. The
+     * detail level increases every time the distance doubles.
+     *
+     * @param cameraPosition
+     *            camera position in world coordinates
+     */
+    public void updateLod(Vector3 cameraPosition) {
+        transform.getTranslation(c00);
+        final float camX = cameraPosition.x - c00.x;
+        final float camY = cameraPosition.y - c00.y;
+        final float camZ = cameraPosition.z - c00.z;
+
+        for (TerrainPatch patch : patches) {
+            final Vector3 center = patch.meshPart.center;
+            final Vector3 halfExtents = patch.meshPart.halfExtents;
+            final float dx = Math.max(Math.abs(camX - center.x) - halfExtents.x, 0);
+            final float dy = Math.max(Math.abs(camY - center.y) - halfExtents.y, 0);
+            final float dz = Math.max(Math.abs(camZ - center.z) - halfExtents.z, 0);
+            final float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+            int lod = 0;
+            float threshold = lodDistance;
+            while (distance > threshold && lod < TerrainPatch.MAX_LOD) {
+                lod++;
+                threshold *= 2;
+            }
+            patch.setLod(lod);
+        }
+    }
+
+    /**
+     * Sets the camera, for which the detail levels are selected every time
+     * the terrain is rendered. This way a plain ModelBatch renders the terrain
+     * with level of detail, without calling updateLod() manually.
+     *
+     * @param camera
+     *            camera used for rendering; null to select the levels only
+     *            through updateLod()
+     */
+    public void setLodCamera(Camera camera) {
+        this.lodCamera = camera;
+    }
+
+    public Camera getLodCamera() {
+        return lodCamera;
+    }
+
+    /**
+     * @return number of triangles rendered at the current detail levels
+     */
+    public int getTriangleCount() {
+        int triangles = 0;
+        for (TerrainPatch patch : patches) {
+            triangles += patch.getTriangleCount();
+        }
+        return triangles;
     }
 
     public Vector3 getVertexPosition(Vector3 out, int x, int z) {
@@ -136,9 +220,20 @@ public class Terrain implements RenderableProvider, Disposable {
 
     public float getHeightAtWorldCoord(float worldX, float worldZ) {
         transform.getTranslation(c00);
-        float terrainX = worldX - c00.x;
-        float terrainZ = worldZ - c00.z;
+        return getHeightAtTerrainCoord(worldX - c00.x, worldZ - c00.z);
+    }
 
+    /**
+     * Returns the interpolated height at a position relative to the terrain
+     * origin. Does not allocate & is safe to call from multiple threads.
+     *
+     * @param terrainX
+     *            x coord relative to the terrain origin
+     * @param terrainZ
+     *            z coord relative to the terrain origin
+     * @return height at that point or 0 if the point is not on the terrain
+     */
+    public float getHeightAtTerrainCoord(float terrainX, float terrainZ) {
         float gridSquareSize = terrainWidth / ((float) vertexResolution - 1);
         int gridX = (int) Math.floor(terrainX / gridSquareSize);
         int gridZ = (int) Math.floor(terrainZ / gridSquareSize);
@@ -150,108 +245,158 @@ public class Terrain implements RenderableProvider, Disposable {
         float xCoord = (terrainX % gridSquareSize) / gridSquareSize;
         float zCoord = (terrainZ % gridSquareSize) / gridSquareSize;
 
-        c01.set(1, heightData[(gridZ + 1) * vertexResolution + gridX], 0);
-        c10.set(0, heightData[gridZ * vertexResolution + gridX + 1], 1);
+        final float h01 = heightData[(gridZ + 1) * vertexResolution + gridX];
+        final float h10 = heightData[gridZ * vertexResolution + gridX + 1];
 
         // we are in upper left triangle of the square
         if (xCoord <= (1 - zCoord)) {
-            c00.set(0, heightData[gridZ * vertexResolution + gridX], 0);
-            return MathUtils.barryCentric(c00, c10, c01, new Vector2(zCoord, xCoord));
+            final float h00 = heightData[gridZ * vertexResolution + gridX];
+            return MathUtils.barryCentric(0, h00, 0, 0, h10, 1, 1, h01, 0, zCoord, xCoord);
         }
         // bottom right triangle
-        c11.set(1, heightData[(gridZ + 1) * vertexResolution + gridX + 1], 1);
-        return MathUtils.barryCentric(c10, c11, c01, new Vector2(zCoord, xCoord));
+        final float h11 = heightData[(gridZ + 1) * vertexResolution + gridX + 1];
+        return MathUtils.barryCentric(0, h10, 1, 1, h11, 1, 1, h01, 0, zCoord, xCoord);
     }
 
-    public Vector3 getRayIntersection(Vector3 out, Ray ray) {
-        // TODO improve performance. use binary search
-        float curDistance = 2;
-        int rounds = 0;
-
-        ray.getEndPoint(out, curDistance);
-        boolean isUnder = isUnderTerrain(out);
-
-        while (true) {
-            rounds++;
-            ray.getEndPoint(out, curDistance);
-
-            boolean u = isUnderTerrain(out);
-            if (u != isUnder || rounds == 10000) {
-                return out;
+    /**
+     * Samples the terrain height at many points at once. Nothing is allocated
+     * per sample and large batches are split across all cores.
+     *
+     * @param xz
+     *            world coordinates of the sample points as x,z pairs
+     * @param outHeights
+     *            receives one height per sample point; 0 for points outside
+     *            of the terrain
+     */
+    public void sampleHeights(final float[] xz, final float[] outHeights) {
+        final float offsetX = transform.val[Matrix4.M03];
+        final float offsetZ = transform.val[Matrix4.M23];
+        ParallelUtils.forRange(xz.length / 2, PARALLEL_SAMPLE_BATCH, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    outHeights[i] = getHeightAtTerrainCoord(xz[2 * i] - offsetX, xz[2 * i + 1] - offsetZ);
+                }
             }
-            curDistance += u ? -0.1f : 0.1f;
-        }
-
+        });
     }
 
-    private short[] buildIndices() {
-        final int w = vertexResolution - 1;
-        final int h = vertexResolution - 1;
-        short indices[] = new short[w * h * 6];
-        int i = -1;
-        for (int y = 0; y < h; ++y) {
-            for (int x = 0; x < w; ++x) {
-                final int c00 = y * vertexResolution + x;
-                final int c10 = c00 + 1;
-                final int c01 = c00 + vertexResolution;
-                final int c11 = c10 + vertexResolution;
-                indices[++i] = (short) c11;
-                indices[++i] = (short) c10;
-                indices[++i] = (short) c00;
-                indices[++i] = (short) c00;
-                indices[++i] = (short) c01;
-                indices[++i] = (short) c11;
+    /**
+     * Samples the terrain normal at many points at once. Nothing is allocated
+     * per sample and large batches are split across all cores.
+     *
+     * @param xz
+     *            world coordinates of the sample points as x,z pairs
+     * @param outNormals
+     *            receives one normal (x,y,z) per sample point; (0,1,0) for
+     *            points outside of the terrain
+     */
+    public void sampleNormals(final float[] xz, final float[] outNormals) {
+        final float offsetX = transform.val[Matrix4.M03];
+        final float offsetZ = transform.val[Matrix4.M23];
+        final float gridSquareSize = terrainWidth / ((float) vertexResolution - 1);
+        ParallelUtils.forRange(xz.length / 2, PARALLEL_SAMPLE_BATCH, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    final int gridX = (int) Math.floor((xz[2 * i] - offsetX) / gridSquareSize);
+                    final int gridZ = (int) Math.floor((xz[2 * i + 1] - offsetZ) / gridSquareSize);
+                    if (gridX >= vertexResolution - 1 || gridZ >= vertexResolution - 1 || gridX < 0 || gridZ < 0) {
+                        outNormals[3 * i] = 0;
+                        outNormals[3 * i + 1] = 1;
+                        outNormals[3 * i + 2] = 0;
+                    } else {
+                        calculateNormal(outNormals, 3 * i, gridX, gridZ);
+                    }
+                }
             }
-        }
-        return indices;
+        });
     }
 
-    private void buildVertices() {
-        for (int x = 0; x < vertexResolution; x++) {
-            for (int z = 0; z < vertexResolution; z++) {
-                calculateVertexAt(tempVertexInfo, x, z);
-                calculateNormalAt(tempVertexInfo, x, z);
-                setVertex(z * vertexResolution + x, tempVertexInfo);
-            }
-        }
-    }
+    /**
+     * Calculates the nearest intersection of a ray with the terrain surface.
+     *
+     * @param out
+     *            will hold the intersection point in world coordinates
+     * @param ray
+     *            the ray in world coordinates
+     * @return out or null, if the ray does not hit the terrain. Out is not
+     *         modified in this case.
+     */
+    public Vector3 getRayIntersection(Vector3 out, Ray ray) {
+        transform.getTranslation(c00);
+        final Vector3 origin = ray.origin;
+        final Vector3 dir = ray.direction;
+        final float t = quadTree.intersect(origin.x - c00.x, origin.y - c00.y, origin.z - c00.z, dir.x, dir.y,
+                dir.z);
+        if (t < 0) return null;
 
-    private void setVertex(int index, MeshPartBuilder.VertexInfo info) {
-        index *= stride;
-        if (posPos >= 0) {
-            vertices[index + posPos] = info.position.x;
-            vertices[index + posPos + 1] = info.position.y;
-            vertices[index + posPos + 2] = info.position.z;
-        }
-        if (uvPos >= 0) {
-            vertices[index + uvPos] = info.uv.x;
-            vertices[index + uvPos + 1] = info.uv.y;
-        }
-        if (norPos >= 0) {
-            vertices[index + norPos] = info.normal.x;
-            vertices[index + norPos + 1] = info.normal.y;
-            vertices[index + norPos + 2] = info.normal.z;
-        }
+        return ray.getEndPoint(out, t);
     }
 
-    private MeshPartBuilder.VertexInfo calculateVertexAt(MeshPartBuilder.VertexInfo out, int x, int z) {
-        final float dx = (float) x / (float) (vertexResolution - 1);
-        final float dz = (float) z / (float) (vertexResolution - 1);
-        final float height = heightData[z * vertexResolution + x];
-
-        out.position.set(dx * this.terrainWidth, height, dz * this.terrainDepth);
-        out.uv.set(dx, dz).scl(uvScale);
+    /**
+     * Rebuilds vertices, bounds & skirts of all patches in dirtyPatches, that
+     * lie inside the given grid rectangle. The patches are processed in
+     * parallel. Vertices are not uploaded.
+     */
+    private void buildPatches(final int minX, final int minZ, final int maxX, final int maxZ) {
+        ParallelUtils.forRange(dirtyPatches.size, 1, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    final TerrainPatch patch = dirtyPatches.get(i);
+                    buildVertices(patch, Math.max(minX, patch.startX), Math.max(minZ, patch.startZ),
+                            Math.min(maxX, patch.startX + patch.width - 1),
+                            Math.min(maxZ, patch.startZ + patch.depth - 1));
+                    patch.updateBounds(Terrain.this);
+                    buildSkirtVertices(patch);
+                }
+            }
+        });
+    }
 
-        return out;
+    /**
+     * Rebuilds the vertices of a patch, that lie inside the given grid
+     * rectangle. Writes row by row directly into the vertex array of the patch.
+     */
+    private void buildVertices(TerrainPatch patch, int minX, int minZ, int maxX, int maxZ) {
+        final float[] vertices = patch.vertices;
+        final float cells = (float) (vertexResolution - 1);
+        for (int z = minZ; z <= maxZ; z++) {
+            final float dz = (float) z / cells;
+            final float posZ = dz * terrainDepth;
+            final float uvZ = dz * uvScale.y;
+            final int row = z * vertexResolution;
+            int index = ((z - patch.startZ) * patch.width + (minX - patch.startX)) * stride;
+            for (int x = minX; x <= maxX; x++) {
+                final float dx = (float) x / cells;
+                vertices[index + posPos] = dx * terrainWidth;
+                vertices[index + posPos + 1] = heightData[row + x];
+                vertices[index + posPos + 2] = posZ;
+                vertices[index + uvPos] = dx * uvScale.x;
+                vertices[index + uvPos + 1] = uvZ;
+                calculateNormal(vertices, index + norPos, x, z);
+                index += stride;
+            }
+        }
     }
 
     /**
-     * Calculates normal of a vertex at x,y based on the verticesOnZ of the
-     * surrounding vertices
+     * Copies the border vertices of a patch into its skirt. Skirt vertices
+     * hang down to the lowest point of the patch.
      */
-    private MeshPartBuilder.VertexInfo calculateNormalAt(MeshPartBuilder.VertexInfo out, int x, int y) {
-        out.normal.set(getNormalAt(x, y));
-        return out;
+    private void buildSkirtVertices(TerrainPatch patch) {
+        final float[] vertices = patch.vertices;
+        final int count = patch.getSkirtVertexCount();
+        for (int i = 0; i < count; i++) {
+            final int source = patch.getSkirtSource(i, vertexResolution);
+            final int x = source % vertexResolution - patch.startX;
+            final int z = source / vertexResolution - patch.startZ;
+            final int from = (z * patch.width + x) * stride;
+            final int to = (patch.skirtStart + i) * stride;
+            System.arraycopy(vertices, from, vertices, to, stride);
+            vertices[to + posPos + 1] = patch.minHeight;
+        }
     }
 
     /**
@@ -293,7 +438,21 @@ public class Terrain implements RenderableProvider, Disposable {
      * @return the normal at the point of terrain
      */
     public Vector3 getNormalAt(int x, int y) {
-        Vector3 out = new Vector3();
+        return getNormalAt(new Vector3(), x, y);
+    }
+
+    /**
+     * Get Normal at x,y point of terrain without allocating a new vector.
+     *
+     * @param out
+     *            receives the normal
+     * @param x
+     *            the x coord on terrain
+     * @param y
+     *            the y coord on terrain( actual z)
+     * @return out
+     */
+    public Vector3 getNormalAt(Vector3 out, int x, int y) {
         // handle edges of terrain
         int xP1 = (x + 1 >= vertexResolution) ? vertexResolution - 1 : x + 1;
         int yP1 = (y + 1 >= vertexResolution) ? vertexResolution - 1 : y + 1;
@@ -311,6 +470,33 @@ public class Terrain implements RenderableProvider, Disposable {
         return out;
     }
 
+    /**
+     * Writes the normal at grid point x,z into out[offset...offset + 2]. Gives
+     * the same result as {@link #getNormalAt(Vector3, int, int)}.
+     */
+    private void calculateNormal(float[] out, int offset, int x, int z) {
+        int xP1 = (x + 1 >= vertexResolution) ? vertexResolution - 1 : x + 1;
+        int zP1 = (z + 1 >= vertexResolution) ? vertexResolution - 1 : z + 1;
+        int xM1 = (x - 1 < 0) ? 0 : x - 1;
+        int zM1 = (z - 1 < 0) ? 0 : z - 1;
+
+        float nx = heightData[z * vertexResolution + xM1] - heightData[z * vertexResolution + xP1];
+        float ny = 2;
+        float nz = heightData[zM1 * vertexResolution + x] - heightData[zP1 * vertexResolution + x];
+
+        // same as Vector3.nor()
+        final float len2 = nx * nx + ny * ny + nz * nz;
+        if (len2 != 0f && len2 != 1f) {
+            final float scalar = 1f / (float) Math.sqrt(len2);
+            nx *= scalar;
+            ny *= scalar;
+            nz *= scalar;
+        }
+        out[offset] = nx;
+        out[offset + 1] = ny;
+        out[offset + 2] = nz;
+    }
+
     public boolean isUnderTerrain(Vector3 worldCoords) {
         float terrainHeight = getHeightAtWorldCoord(worldCoords.x, worldCoords.z);
         return terrainHeight > worldCoords.y;
@@ -340,18 +526,83 @@ public class Terrain implements RenderableProvider, Disposable {
     }
 
     public void update() {
-        buildVertices();
-        mesh.setVertices(vertices);
+        quadTree.update();
+
+        dirtyPatches.clear();
+        dirtyPatches.addAll(patches);
+        buildPatches(0, 0, vertexResolution - 1, vertexResolution - 1);
+        for (TerrainPatch patch : patches) {
+            patch.mesh.setVertices(patch.vertices);
+        }
+    }
+
+    /**
+     * Rebuilds only the vertices inside the given grid rectangle and uploads
+     * the affected range of the vertex buffers.
+     *
+     * A one-vertex border around the rectangle is rebuilt as well, because the
+     * normals of the neighbouring vertices depend on the modified heights.
+     *
+     * @param minX
+     *            first modified column (inclusive)
+     * @param minZ
+     *            first modified row (inclusive)
+     * @param maxX
+     *            last modified column (inclusive)
+     * @param maxZ
+     *            last modified row (inclusive)
+     */
+    public void update(int minX, int minZ, int maxX, int maxZ) {
+        minX = Math.max(0, minX - 1);
+        minZ = Math.max(0, minZ - 1);
+        maxX = Math.min(vertexResolution - 1, maxX + 1);
+        maxZ = Math.min(vertexResolution - 1, maxZ + 1);
+        if (minX > maxX || minZ > maxZ) return;
+
+        quadTree.update(minX, minZ, maxX, maxZ);
+
+        dirtyPatches.clear();
+        for (TerrainPatch patch : patches) {
+            if (patch.overlaps(minX, minZ, maxX, maxZ)) {
+                dirtyPatches.add(patch);
+            }
+        }
+        buildPatches(minX, minZ, maxX, maxZ);
+
+        for (TerrainPatch patch : dirtyPatches) {
+            final int fromX = Math.max(minX, patch.startX);
+            final int fromZ = Math.max(minZ, patch.startZ);
+            final int toX = Math.min(maxX, patch.startX + patch.width - 1);
+            final int toZ = Math.min(maxZ, patch.startZ + patch.depth - 1);
+
+            // vertices are stored row by row, so upload the span from the first
+            // to the last modified vertex in a single call
+            final int first = (fromZ - patch.startZ) * patch.width + (fromX - patch.startX);
+            final int last = (toZ - patch.startZ) * patch.width + (toX - patch.startX);
+            final int offset = first * stride;
+            final int count = (last - first + 1) * stride;
+            patch.mesh.updateVertices(offset, patch.vertices, offset, count);
+
+            final int skirtOffset = patch.skirtStart * stride;
+            patch.mesh.updateVertices(skirtOffset, patch.vertices, skirtOffset,
+                    patch.getSkirtVertexCount() * stride);
+        }
     }
 
     @Override
     public void getRenderables(Array<Renderable> renderables, Pool<Renderable> pool) {
+        if (lodCamera != null) {
+            updateLod(lodCamera.position);
+        }
         modelInstance.getRenderables(renderables, pool);
     }
 
     @Override
     public void dispose() {
-
+        if (patches == null) return;
+        for (TerrainPatch patch : patches) {
+            patch.mesh.dispose();
+        }
     }
 
 }
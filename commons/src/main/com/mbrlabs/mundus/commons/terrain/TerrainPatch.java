@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.terrain;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.utils.ShortArray;
+
+/**
+ * A rectangular part of the terrain grid with its own mesh.
+ *
+ * Libgdx meshes only support 16 bit indices, which limits a single mesh to
+ * 65536 vertices. Large terrains are therefore split into patches of at most
+ * (PATCH_SIZE + 1)^2 vertices. Vertices on the border of a patch are shared
+ * with its neighbours, so there are no gaps between the patches.
+ *
+ * Every patch holds the indices for several levels of detail in one index
+ * buffer. Level n only uses every 2^n-th vertex of the grid, plus the last row
+ * & column, so patches of any size get all levels. Sides, that are
+ * shared with another patch get a skirt, which hides the cracks between
+ * neighbouring patches of different detail levels.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerrainPatch {
+
+    /** Number of grid cells along one side of a full patch. */
+    public static final int PATCH_SIZE = 128;
+
+    /** Maximum detail level. Level n renders every 2^n-th vertex. */
+    public static final int MAX_LOD = 4;
+
+    // skirt sides
+    private static final int SIDE_TOP = 0;
+    private static final int SIDE_BOTTOM = 1;
+    private static final int SIDE_LEFT = 2;
+    private static final int SIDE_RIGHT = 3;
+
+    /** First column of this patch in the terrain grid */
+    public final int startX;
+    /** First row of this patch in the terrain grid */
+    public final int startZ;
+    /** Number of vertices along the x axis */
+    public final int width;
+    /** Number of vertices along the z axis */
+    public final int depth;
+
+    final Mesh mesh;
+    final float[] vertices;
+    MeshPart meshPart;
+
+    // index ranges of the detail levels
+    private final int[] lodOffsets;
+    private final int[] lodSizes;
+    private int lod = 0;
+
+    // sides, that are shared with another patch
+    private final boolean[] skirts = new boolean[4];
+    /** Index of the first skirt vertex */
+    final int skirtStart;
+
+    float minHeight;
+    float maxHeight;
+
+    TerrainPatch(int startX, int startZ, int width, int depth, int vertexResolution, VertexAttributes attribs) {
+        this.startX = startX;
+        this.startZ = startZ;
+        this.width = width;
+        this.depth = depth;
+
+        skirts[SIDE_TOP] = startZ > 0;
+        skirts[SIDE_BOTTOM] = startZ + depth < vertexResolution;
+        skirts[SIDE_LEFT] = startX > 0;
+        skirts[SIDE_RIGHT] = startX + width < vertexResolution;
+
+        // a level is only useful, if it skips vertices of the previous one
+        int levels = 1;
+        while (levels <= MAX_LOD && (1 << levels) < Math.max(width, depth) - 1) {
+            levels++;
+        }
+        lodOffsets = new int[levels];
+        lodSizes = new int[levels];
+
+        final ShortArray indices = new ShortArray();
+        for (int level = 0; level < levels; level++) {
+            lodOffsets[level] = indices.size;
+            buildIndices(indices, 1 << level);
+            lodSizes[level] = indices.size - lodOffsets[level];
+        }
+
+        skirtStart = width * depth;
+        final int numVertices = skirtStart + 2 * width + 2 * depth;
+        this.mesh = new Mesh(true, numVertices, indices.size, attribs);
+        this.vertices = new float[numVertices * (attribs.vertexSize / 4)];
+        mesh.setIndices(indices.items, 0, indices.size);
+        meshPart = new MeshPart(null, mesh, 0, lodSizes[0], GL20.GL_TRIANGLES);
+    }
+
+    /**
+     * @return true if the given (inclusive) grid rectangle overlaps this patch
+     */
+    public boolean overlaps(int minX, int minZ, int maxX, int maxZ) {
+        return minX < startX + width && maxX >= startX && minZ < startZ + depth && maxZ >= startZ;
+    }
+
+    /**
+     * @return number of available detail levels
+     */
+    public int getLodLevels() {
+        return lodSizes.length;
+    }
+
+    /**
+     * @return currently rendered detail level
+     */
+    public int getLod() {
+        return lod;
+    }
+
+    /**
+     * Sets the rendered detail level. Levels, that this patch does not support
+     * are clamped to the lowest available detail.
+     *
+     * @param lod
+     *            detail level
+     */
+    public void setLod(int lod) {
+        this.lod = Math.max(0, Math.min(lod, lodSizes.length - 1));
+        meshPart.offset = lodOffsets[this.lod];
+        meshPart.size = lodSizes[this.lod];
+    }
+
+    /**
+     * @return number of triangles rendered at the current detail level
+     */
+    public int getTriangleCount() {
+        return lodSizes[lod] / 3;
+    }
+
+    /**
+     * Returns the grid position of a skirt vertex.
+     *
+     * @param skirtIndex
+     *            index relative to the first skirt vertex
+     * @return grid index (z * vertexResolution + x) of the border vertex the
+     *         skirt vertex hangs from
+     */
+    int getSkirtSource(int skirtIndex, int vertexResolution) {
+        if (skirtIndex < width) {
+            return startZ * vertexResolution + startX + skirtIndex;
+        }
+        skirtIndex -= width;
+        if (skirtIndex < width) {
+            return (startZ + depth - 1) * vertexResolution + startX + skirtIndex;
+        }
+        skirtIndex -= width;
+        if (skirtIndex < depth) {
+            return (startZ + skirtIndex) * vertexResolution + startX;
+        }
+        skirtIndex -= depth;
+        return (startZ + skirtIndex) * vertexResolution + startX + width - 1;
+    }
+
+    /**
+     * @return number of skirt vertices
+     */
+    int getSkirtVertexCount() {
+        return 2 * width + 2 * depth;
+    }
+
+    /**
+     * Updates the height range and the bounds of the mesh part, based on the
+     * height values of this patch.
+     *
+     * @param terrain
+     *            the terrain this patch belongs to
+     */
+    void updateBounds(Terrain terrain) {
+        final float[] heightData = terrain.heightData;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int z = startZ; z < startZ + depth; z++) {
+            final int row = z * terrain.vertexResolution;
+            for (int x = startX; x < startX + width; x++) {
+                final float h = heightData[row + x];
+                if (h < min) min = h;
+                if (h > max) max = h;
+            }
+        }
+        minHeight = min;
+        maxHeight = max;
+
+        final float cellWidth = terrain.terrainWidth / (float) (terrain.vertexResolution - 1);
+        final float cellDepth = terrain.terrainDepth / (float) (terrain.vertexResolution - 1);
+        final float halfWidth = (width - 1) * cellWidth * 0.5f;
+        final float halfDepth = (depth - 1) * cellDepth * 0.5f;
+
+        meshPart.center.set(startX * cellWidth + halfWidth, (min + max) * 0.5f, startZ * cellDepth + halfDepth);
+        meshPart.halfExtents.set(halfWidth, (max - min) * 0.5f, halfDepth);
+        meshPart.radius = meshPart.halfExtents.len();
+    }
+
+    private void buildIndices(ShortArray indices, int step) {
+        final int[] xs = getLodCoordinates(width, step);
+        final int[] zs = getLodCoordinates(depth, step);
+        for (int iz = 0; iz < zs.length - 1; iz++) {
+            for (int ix = 0; ix < xs.length - 1; ix++) {
+                final int c00 = zs[iz] * width + xs[ix];
+                final int c10 = zs[iz] * width + xs[ix + 1];
+                final int c01 = zs[iz + 1] * width + xs[ix];
+                final int c11 = zs[iz + 1] * width + xs[ix + 1];
+                indices.add((short) c11);
+                indices.add((short) c10);
+                indices.add((short) c00);
+                indices.add((short) c00);
+                indices.add((short) c01);
+                indices.add((short) c11);
+            }
+        }
+
+        int skirt = skirtStart;
+        if (skirts[SIDE_TOP]) buildSkirt(indices, 0, 1, skirt, xs);
+        skirt += width;
+        if (skirts[SIDE_BOTTOM]) buildSkirt(indices, (depth - 1) * width, 1, skirt, xs);
+        skirt += width;
+        if (skirts[SIDE_LEFT]) buildSkirt(indices, 0, width, skirt, zs);
+        skirt += depth;
+        if (skirts[SIDE_RIGHT]) buildSkirt(indices, width - 1, width, skirt, zs);
+    }
+
+    /**
+     * @return every step-th coordinate of a side with count vertices; the
+     *         last vertex is always included
+     */
+    private static int[] getLodCoordinates(int count, int step) {
+        final int[] coordinates = new int[(count - 2) / step + 2];
+        for (int i = 0; i < coordinates.length - 1; i++) {
+            coordinates[i] = i * step;
+        }
+        coordinates[coordinates.length - 1] = count - 1;
+        return coordinates;
+    }
+
+    /**
+     * Builds a vertical strip between the border vertices of a side and their
+     * skirt vertices. The strip is double sided, because it has to be visible
+     * from both neighbouring patches.
+     */
+    private void buildSkirt(ShortArray indices, int first, int gridStride, int skirtFirst, int[] coordinates) {
+        for (int i = 0; i < coordinates.length - 1; i++) {
+            final int a = first + coordinates[i] * gridStride;
+            final int b = first + coordinates[i + 1] * gridStride;
+            final int sa = skirtFirst + coordinates[i];
+            final int sb = skirtFirst + coordinates[i + 1];
+            indices.add((short) a);
+            indices.add((short) b);
+            indices.add((short) sa);
+            indices.add((short) sa);
+            indices.add((short) b);
+            indices.add((short) sb);
+
+            indices.add((short) sa);
+            indices.add((short) b);
+            indices.add((short) a);
+            indices.add((short) sb);
+            indices.add((short) b);
+            indices.add((short) sa);
+        }
+    }
+
+}
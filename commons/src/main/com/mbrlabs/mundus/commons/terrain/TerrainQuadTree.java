@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.terrain;
+
+/**
+ * Min/max height quadtree over the cells of a terrain.
+ *
+ * Every node stores the lowest & highest height value of the grid cells it
+ * covers. Ray casts descend only into nodes, whose bounding box is hit by the
+ * ray (nearest first) and intersect the actual triangles in the leaves. This
+ * gives exact results at any distance, while only a few nodes have to be
+ * visited.
+ *
+ * All coordinates are in terrain space, i.e. relative to the terrain origin.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerrainQuadTree {
+
+    /** Number of grid cells along one side of a leaf. */
+    public static final int LEAF_SIZE = 4;
+
+    private static final float EPSILON = 0.000001f;
+
+    private final Terrain terrain;
+    private final int cells;
+
+    // level 0 contains the leaves, the last level the root node
+    private final int levels;
+    private final int[] sizes;
+    private final float[][] min;
+    private final float[][] max;
+
+    // per level scratch space for sorting the children of a node
+    private final int[][] childX;
+    private final int[][] childZ;
+    private final float[][] childDist;
+
+    // state of the current ray cast
+    private float cellWidth;
+    private float cellDepth;
+    private float ox, oy, oz;
+    private float dx, dy, dz;
+    private float nearest;
+
+    public TerrainQuadTree(Terrain terrain) {
+        this.terrain = terrain;
+        this.cells = terrain.vertexResolution - 1;
+
+        int count = 1;
+        int size = (cells + LEAF_SIZE - 1) / LEAF_SIZE;
+        while (size > 1) {
+            size = (size + 1) / 2;
+            count++;
+        }
+        levels = count;
+
+        sizes = new int[levels];
+        min = new float[levels][];
+        max = new float[levels][];
+        childX = new int[levels][4];
+        childZ = new int[levels][4];
+        childDist = new float[levels][4];
+
+        size = (cells + LEAF_SIZE - 1) / LEAF_SIZE;
+        for (int level = 0; level < levels; level++) {
+            sizes[level] = size;
+            min[level] = new float[size * size];
+            max[level] = new float[size * size];
+            size = (size + 1) / 2;
+        }
+
+        update();
+    }
+
+    /**
+     * Rebuilds the whole tree.
+     */
+    public void update() {
+        update(0, 0, cells, cells);
+    }
+
+    /**
+     * Updates all nodes, that contain one of the vertices in the given grid
+     * rectangle.
+     *
+     * @param minX
+     *            first modified column (inclusive)
+     * @param minZ
+     *            first modified row (inclusive)
+     * @param maxX
+     *            last modified column (inclusive)
+     * @param maxZ
+     *            last modified row (inclusive)
+     */
+    public void update(int minX, int minZ, int maxX, int maxZ) {
+        if (cells < 1) return;
+
+        // a vertex is part of the cells to its left and right
+        int fromX = Math.max(0, minX - 1) / LEAF_SIZE;
+        int fromZ = Math.max(0, minZ - 1) / LEAF_SIZE;
+        int toX = Math.min(cells - 1, maxX) / LEAF_SIZE;
+        int toZ = Math.min(cells - 1, maxZ) / LEAF_SIZE;
+
+        final float[] heightData = terrain.heightData;
+        final int res = terrain.vertexResolution;
+        for (int nz = fromZ; nz <= toZ; nz++) {
+            for (int nx = fromX; nx <= toX; nx++) {
+                final int x1 = Math.min((nx + 1) * LEAF_SIZE, cells);
+                final int z1 = Math.min((nz + 1) * LEAF_SIZE, cells);
+                float lo = Float.MAX_VALUE;
+                float hi = -Float.MAX_VALUE;
+                for (int z = nz * LEAF_SIZE; z <= z1; z++) {
+                    for (int x = nx * LEAF_SIZE; x <= x1; x++) {
+                        final float h = heightData[z * res + x];
+                        if (h < lo) lo = h;
+                        if (h > hi) hi = h;
+                    }
+                }
+                final int index = nz * sizes[0] + nx;
+                min[0][index] = lo;
+                max[0][index] = hi;
+            }
+        }
+
+        for (int level = 1; level < levels; level++) {
+            fromX /= 2;
+            fromZ /= 2;
+            toX /= 2;
+            toZ /= 2;
+
+            final int childSize = sizes[level - 1];
+            final float[] childMin = min[level - 1];
+            final float[] childMax = max[level - 1];
+            for (int nz = fromZ; nz <= toZ; nz++) {
+                for (int nx = fromX; nx <= toX; nx++) {
+                    float lo = Float.MAX_VALUE;
+                    float hi = -Float.MAX_VALUE;
+                    for (int cz = nz * 2; cz <= nz * 2 + 1 && cz < childSize; cz++) {
+                        for (int cx = nx * 2; cx <= nx * 2 + 1 && cx < childSize; cx++) {
+                            final int child = cz * childSize + cx;
+                            if (childMin[child] < lo) lo = childMin[child];
+                            if (childMax[child] > hi) hi = childMax[child];
+                        }
+                    }
+                    final int index = nz * sizes[level] + nx;
+                    min[level][index] = lo;
+                    max[level][index] = hi;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the nearest intersection of a ray with the terrain surface.
+     *
+     * @param originX
+     *            ray origin in terrain space
+     * @param originY
+     *            ray origin in terrain space
+     * @param originZ
+     *            ray origin in terrain space
+     * @param dirX
+     *            ray direction
+     * @param dirY
+     *            ray direction
+     * @param dirZ
+     *            ray direction
+     * @return distance along the ray direction to the intersection or -1 if
+     *         the ray does not hit the terrain
+     */
+    public float intersect(float originX, float originY, float originZ, float dirX, float dirY, float dirZ) {
+        if (cells < 1) return -1;
+
+        ox = originX;
+        oy = originY;
+        oz = originZ;
+        dx = dirX;
+        dy = dirY;
+        dz = dirZ;
+        cellWidth = terrain.terrainWidth / (float) cells;
+        cellDepth = terrain.terrainDepth / (float) cells;
+        nearest = Float.MAX_VALUE;
+
+        final int root = levels - 1;
+        if (intersectNode(root, 0, 0) >= 0) {
+            traverse(root, 0, 0);
+        }
+
+        return nearest == Float.MAX_VALUE ? -1 : nearest;
+    }
+
+    private void traverse(int level, int nx, int nz) {
+        if (level == 0) {
+            intersectLeaf(nx, nz);
+            return;
+        }
+
+        // collect the children, that are hit by the ray
+        final int childLevel = level - 1;
+        final int childSize = sizes[childLevel];
+        final int[] cx = childX[level];
+        final int[] cz = childZ[level];
+        final float[] dist = childDist[level];
+        int count = 0;
+        for (int z = nz * 2; z <= nz * 2 + 1 && z < childSize; z++) {
+            for (int x = nx * 2; x <= nx * 2 + 1 && x < childSize; x++) {
+                final float t = intersectNode(childLevel, x, z);
+                if (t < 0 || t > nearest) continue;
+
+                // insertion sort by distance
+                int i = count++;
+                while (i > 0 && dist[i - 1] > t) {
+                    dist[i] = dist[i - 1];
+                    cx[i] = cx[i - 1];
+                    cz[i] = cz[i - 1];
+                    i--;
+                }
+                dist[i] = t;
+                cx[i] = x;
+                cz[i] = z;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (dist[i] > nearest) return;
+            traverse(childLevel, cx[i], cz[i]);
+        }
+    }
+
+    /**
+     * @return distance to the bounding box of the node or -1 if it is missed
+     */
+    private float intersectNode(int level, int nx, int nz) {
+        final int span = LEAF_SIZE << level;
+        final int index = nz * sizes[level] + nx;
+        final float x0 = nx * span * cellWidth;
+        final float x1 = Math.min((nx + 1) * span, cells) * cellWidth;
+        final float z0 = nz * span * cellDepth;
+        final float z1 = Math.min((nz + 1) * span, cells) * cellDepth;
+
+        float tNear = 0;
+        float tFar = Float.MAX_VALUE;
+
+        // x slab
+        if (Math.abs(dx) < EPSILON) {
+            if (ox < x0 || ox > x1) return -1;
+        } else {
+            float t0 = (x0 - ox) / dx;
+            float t1 = (x1 - ox) / dx;
+            if (t0 > t1) {
+                final float tmp = t0;
+                t0 = t1;
+                t1 = tmp;
+            }
+            tNear = Math.max(tNear, t0);
+            tFar = Math.min(tFar, t1);
+            if (tNear > tFar) return -1;
+        }
+
+        // y slab
+        final float y0 = min[level][index];
+        final float y1 = max[level][index];
+        if (Math.abs(dy) < EPSILON) {
+            if (oy < y0 || oy > y1) return -1;
+        } else {
+            float t0 = (y0 - oy) / dy;
+            float t1 = (y1 - oy) / dy;
+            if (t0 > t1) {
+                final float tmp = t0;
+                t0 = t1;
+                t1 = tmp;
+            }
+            tNear = Math.max(tNear, t0);
+            tFar = Math.min(tFar, t1);
+            if (tNear > tFar) return -1;
+        }
+
+        // z slab
+        if (Math.abs(dz) < EPSILON) {
+            if (oz < z0 || oz > z1) return -1;
+        } else {
+            float t0 = (z0 - oz) / dz;
+            float t1 = (z1 - oz) / dz;
+            if (t0 > t1) {
+                final float tmp = t0;
+                t0 = t1;
+                t1 = tmp;
+            }
+            tNear = Math.max(tNear, t0);
+            tFar = Math.min(tFar, t1);
+            if (tNear > tFar) return -1;
+        }
+
+        return tNear;
+    }
+
+    private void intersectLeaf(int nx, int nz) {
+        final float[] heightData = terrain.heightData;
+        final int res = terrain.vertexResolution;
+        final int x1 = Math.min((nx + 1) * LEAF_SIZE, cells);
+        final int z1 = Math.min((nz + 1) * LEAF_SIZE, cells);
+
+        for (int z = nz * LEAF_SIZE; z < z1; z++) {
+            for (int x = nx * LEAF_SIZE; x < x1; x++) {
+                final float h00 = heightData[z * res + x];
+                final float h10 = heightData[z * res + x + 1];
+                final float h01 = heightData[(z + 1) * res + x];
+                final float h11 = heightData[(z + 1) * res + x + 1];
+                final float px0 = x * cellWidth;
+                final float px1 = (x + 1) * cellWidth;
+                final float pz0 = z * cellDepth;
+                final float pz1 = (z + 1) * cellDepth;
+
+                // same triangulation as the terrain mesh
+                intersectTriangle(px1, h11, pz1, px1, h10, pz0, px0, h00, pz0);
+                intersectTriangle(px0, h00, pz0, px0, h01, pz1, px1, h11, pz1);
+            }
+        }
+    }
+
+    /**
+     * Moeller-Trumbore ray/triangle intersection. Updates the nearest hit.
+     */
+    private void intersectTriangle(float ax, float ay, float az, float bx, float by, float bz, float cx, float cy,
+            float cz) {
+        final float e1x = bx - ax, e1y = by - ay, e1z = bz - az;
+        final float e2x = cx - ax, e2y = cy - ay, e2z = cz - az;
+
+        // p = dir x e2
+        final float px = dy * e2z - dz * e2y;
+        final float py = dz * e2x - dx * e2z;
+        final float pz = dx * e2y - dy * e2x;
+        final float det = e1x * px + e1y * py + e1z * pz;
+        if (Math.abs(det) < EPSILON) return;
+        final float invDet = 1f / det;
+
+        final float tx = ox - ax, ty = oy - ay, tz = oz - az;
+        final float u = (tx * px + ty * py + tz * pz) * invDet;
+        if (u < 0 || u > 1) return;
+
+        // q = t x e1
+        final float qx = ty * e1z - tz * e1y;
+        final float qy = tz * e1x - tx * e1z;
+        final float qz = tx * e1y - ty * e1x;
+        final float v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v < 0 || u + v > 1) return;
+
+        final float t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        if (t >= 0 && t < nearest) {
+            nearest = t;
+        }
+    }
+
+}
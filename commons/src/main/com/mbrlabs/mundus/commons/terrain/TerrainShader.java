@@ -20,7 +20,6 @@ import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.Shader;
-import com.badlogic.gdx.graphics.g3d.shaders.BaseShader;
 import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.Vector2;
@@ -29,13 +28,14 @@ import com.mbrlabs.mundus.commons.env.Fog;
 import com.mbrlabs.mundus.commons.env.MundusEnvironment;
 import com.mbrlabs.mundus.commons.env.lights.DirectionalLight;
 import com.mbrlabs.mundus.commons.env.lights.DirectionalLightsAttribute;
+import com.mbrlabs.mundus.commons.shaders.CachingShader;
 import com.mbrlabs.mundus.commons.utils.ShaderUtils;
 
 /**
  * @author Marcus Brummer
  * @version 22-11-2015
  */
-public class TerrainShader extends BaseShader {
+public class TerrainShader extends CachingShader {
 
     private static final String VERTEX_SHADER = "com/mbrlabs/mundus/commons/terrain/terrain.vert.glsl";
     private static final String FRAGMENT_SHADER = "com/mbrlabs/mundus/commons/terrain/terrain.frag.glsl";
@@ -71,6 +71,9 @@ public class TerrainShader extends BaseShader {
 
     private final ShaderProgram program;
 
+    // environment, whose lights & fog have been set in this block
+    private MundusEnvironment environment;
+
     public TerrainShader() {
         program = ShaderUtils.compile(VERTEX_SHADER, FRAGMENT_SHADER, true);
     }
@@ -82,7 +85,11 @@ public class TerrainShader extends BaseShader {
 
     @Override
     public int compareTo(Shader other) {
-        return 0;
+        if (other == this || other instanceof TerrainShader) return 0;
+        // texture splatting is the most expensive fragment shader: draw
+        // terrains after entities, so covered terrain fragments fail the
+        // depth test early
+        return 1;
     }
 
     @Override
@@ -100,38 +107,46 @@ public class TerrainShader extends BaseShader {
         this.context.setDepthMask(true);
 
         program.begin();
+        resetTextures();
+        environment = null;
 
-        set(UNIFORM_PROJ_VIEW_MATRIX, camera.combined);
-        set(UNIFORM_CAM_POS, camera.position);
+        setCached(UNIFORM_PROJ_VIEW_MATRIX, camera.combined);
+        setCached(UNIFORM_CAM_POS, camera.position);
     }
 
     @Override
     public void render(Renderable renderable) {
+        // the environment is the same for the whole frame
         final MundusEnvironment env = (MundusEnvironment) renderable.environment;
+        if (env != environment) {
+            setLights(env);
+            setFog(env);
+            environment = env;
+        }
 
-        setLights(env);
         setTerrainSplatTextures(renderable);
-        set(UNIFORM_TRANS_MATRIX, renderable.worldTransform);
+        setCached(UNIFORM_TRANS_MATRIX, renderable.worldTransform);
 
-        // Fog
+        // bind attributes, bind mesh & render; then unbinds everything
+        renderable.meshPart.render(program);
+    }
+
+    private void setFog(MundusEnvironment env) {
         final Fog fog = env.getFog();
         if (fog == null) {
-            set(UNIFORM_FOG_DENSITY, 0f);
-            set(UNIFORM_FOG_GRADIENT, 0f);
+            setCached(UNIFORM_FOG_DENSITY, 0f);
+            setCached(UNIFORM_FOG_GRADIENT, 0f);
         } else {
-            set(UNIFORM_FOG_DENSITY, fog.density);
-            set(UNIFORM_FOG_GRADIENT, fog.gradient);
-            set(UNIFORM_FOG_COLOR, fog.color);
+            setCached(UNIFORM_FOG_DENSITY, fog.density);
+            setCached(UNIFORM_FOG_GRADIENT, fog.gradient);
+            setCached(UNIFORM_FOG_COLOR, fog.color);
         }
-
-        // bind attributes, bind mesh & render; then unbinds everything
-        renderable.meshPart.render(program);
     }
 
     private void setLights(MundusEnvironment env) {
         // ambient
-        set(UNIFORM_AMBIENT_LIGHT_COLOR, env.getAmbientLight().color);
-        set(UNIFORM_AMBIENT_LIGHT_INTENSITY, env.getAmbientLight().intensity);
+        setCached(UNIFORM_AMBIENT_LIGHT_COLOR, env.getAmbientLight().color);
+        setCached(UNIFORM_AMBIENT_LIGHT_INTENSITY, env.getAmbientLight().intensity);
 
         // TODO light array for each light type
 
@@ -141,9 +156,9 @@ public class TerrainShader extends BaseShader {
         final Array<DirectionalLight> dirLights = dirLightAttribs == null ? null : dirLightAttribs.lights;
         if (dirLights != null && dirLights.size > 0) {
             final DirectionalLight light = dirLights.first();
-            set(UNIFORM_DIRECTIONAL_LIGHT_COLOR, light.color);
-            set(UNIFORM_DIRECTIONAL_LIGHT_DIR, light.direction);
-            set(UNIFORM_DIRECTIONAL_LIGHT_INTENSITY, light.intensity);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_COLOR, light.color);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_DIR, light.direction);
+            setCached(UNIFORM_DIRECTIONAL_LIGHT_INTENSITY, light.intensity);
         }
 
         // TODO point lights, spot lights
@@ -155,27 +170,27 @@ public class TerrainShader extends BaseShader {
         final TerrainTexture terrainTexture = splatAttrib.terrainTexture;
 
         if (terrainTexture.getSplatmap() != null) {
-            set(UNIFORM_TEXTURE_HAS_SPLATMAP, 1);
-            set(UNIFORM_TEXTURE_SPLAT, terrainTexture.getSplatmap().getTexture());
+            setCached(UNIFORM_TEXTURE_HAS_SPLATMAP, 1);
+            setCached(UNIFORM_TEXTURE_SPLAT, terrainTexture.getSplatmap().getTexture());
 
             SplatTexture st = terrainTexture.getTexture(SplatTexture.Channel.BASE);
-            if (st != null) set(UNIFORM_TEXTURE_BASE, st.texture.getTexture());
+            if (st != null) setCached(UNIFORM_TEXTURE_BASE, st.texture.getTexture());
             st = terrainTexture.getTexture(SplatTexture.Channel.R);
-            if (st != null) set(UNIFORM_TEXTURE_R, st.texture.getTexture());
+            if (st != null) setCached(UNIFORM_TEXTURE_R, st.texture.getTexture());
             st = terrainTexture.getTexture(SplatTexture.Channel.G);
-            if (st != null) set(UNIFORM_TEXTURE_G, st.texture.getTexture());
+            if (st != null) setCached(UNIFORM_TEXTURE_G, st.texture.getTexture());
             st = terrainTexture.getTexture(SplatTexture.Channel.B);
-            if (st != null) set(UNIFORM_TEXTURE_B, st.texture.getTexture());
+            if (st != null) setCached(UNIFORM_TEXTURE_B, st.texture.getTexture());
             st = terrainTexture.getTexture(SplatTexture.Channel.A);
-            if (st != null) set(UNIFORM_TEXTURE_A, st.texture.getTexture());
+            if (st != null) setCached(UNIFORM_TEXTURE_A, st.texture.getTexture());
         } else {
-            set(UNIFORM_TEXTURE_HAS_SPLATMAP, 0);
+            setCached(UNIFORM_TEXTURE_HAS_SPLATMAP, 0);
         }
 
         // set terrain world size
         terrainSize.x = terrainTexture.getTerrain().terrainWidth;
         terrainSize.y = terrainTexture.getTerrain().terrainDepth;
-        set(UNIFORM_TERRAIN_SIZE, terrainSize);
+        setCached(UNIFORM_TERRAIN_SIZE, terrainSize);
     }
 
     @Override
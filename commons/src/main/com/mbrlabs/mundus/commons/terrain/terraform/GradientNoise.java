@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain.terraform;
+
+/**
+ * Hash based 2D gradient noise (Perlin noise) with fractal brownian motion.
+ *
+ * The lattice gradients are derived from an integer hash of the lattice
+ * position and the seed, so no permutation tables or random number generators
+ * are needed. The noise is deterministic per seed and instances can be used by
+ * several threads at once.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class GradientNoise {
+
+    private final int seed;
+
+    public GradientNoise(long seed) {
+        this.seed = (int) (seed ^ (seed >>> 32));
+    }
+
+    /**
+     * @return noise value in [-1, 1]
+     */
+    public float noise(float x, float z) {
+        int x0 = (int) x;
+        int z0 = (int) z;
+        if (x < x0) x0--;
+        if (z < z0) z0--;
+        final float fx = x - x0;
+        final float fz = z - z0;
+
+        final float n00 = gradient(hash(x0, z0), fx, fz);
+        final float n10 = gradient(hash(x0 + 1, z0), fx - 1, fz);
+        final float n01 = gradient(hash(x0, z0 + 1), fx, fz - 1);
+        final float n11 = gradient(hash(x0 + 1, z0 + 1), fx - 1, fz - 1);
+
+        final float u = fade(fx);
+        final float v = fade(fz);
+        final float nx0 = n00 + u * (n10 - n00);
+        final float nx1 = n01 + u * (n11 - n01);
+        final float n = nx0 + v * (nx1 - nx0);
+
+        return Math.max(-1f, Math.min(1f, n));
+    }
+
+    /**
+     * Sums several octaves of noise. Every octave has a higher frequency and
+     * a lower amplitude than the previous one.
+     *
+     * @param octaves
+     *            number of octaves
+     * @param lacunarity
+     *            frequency multiplier per octave
+     * @param gain
+     *            amplitude multiplier per octave
+     * @return noise value in [-1, 1]
+     */
+    public float fbm(float x, float z, int octaves, float lacunarity, float gain) {
+        float sum = 0;
+        float amplitude = 1;
+        float norm = 0;
+        float frequency = 1;
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude * noise(x * frequency, z * frequency);
+            norm += amplitude;
+            amplitude *= gain;
+            frequency *= lacunarity;
+        }
+
+        return norm == 0 ? 0 : sum / norm;
+    }
+
+    private int hash(int x, int z) {
+        int h = seed + x * 374761393 + z * 668265263;
+        h = (h ^ (h >>> 13)) * 1274126177;
+        return h ^ (h >>> 16);
+    }
+
+    private static float gradient(int hash, float x, float z) {
+        switch (hash & 7) {
+        case 0:
+            return x + z;
+        case 1:
+            return -x + z;
+        case 2:
+            return x - z;
+        case 3:
+            return -x - z;
+        case 4:
+            return x;
+        case 5:
+            return -x;
+        case 6:
+            return z;
+        default:
+            return -z;
+        }
+    }
+
+    // quintic fade curve 6t^5 - 15t^4 + 10t^3
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain.terraform;
+
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
+
+/**
+ * Gray scale height map with 16 bit unsigned samples.
+ *
+ * 8 bit sources are scaled to the full 16 bit range, so that all height maps
+ * can be treated the same.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class HeightMap {
+
+    public static final int MAX_SAMPLE = 0xffff;
+
+    // minimal number of rows per thread
+    private static final int ROWS_PER_TASK = 16;
+
+    public final int width;
+    public final int height;
+    /** Unsigned samples, row by row */
+    public final short[] samples;
+
+    public HeightMap(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.samples = new short[width * height];
+    }
+
+    /**
+     * @return sample at the given position, in [0, 1]
+     */
+    public float get(int x, int z) {
+        return (samples[z * width + x] & MAX_SAMPLE) / (float) MAX_SAMPLE;
+    }
+
+    /**
+     * Bilinearly resamples the height map to a square height grid.
+     *
+     * @param out
+     *            target array with at least resolution^2 elements
+     * @param resolution
+     *            number of vertices along one side of the target grid
+     * @param minHeight
+     *            height of sample 0
+     * @param maxHeight
+     *            height of the highest possible sample
+     * @return out
+     */
+    public float[] resample(final float[] out, final int resolution, final float minHeight, final float maxHeight) {
+        final float stepX = resolution > 1 ? (width - 1) / (float) (resolution - 1) : 0;
+        final float stepZ = resolution > 1 ? (height - 1) / (float) (resolution - 1) : 0;
+        final float range = maxHeight - minHeight;
+
+        ParallelUtils.forRange(resolution, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int z = from; z < to; z++) {
+                    final float sz = z * stepZ;
+                    final int z0 = Math.min((int) sz, height - 1);
+                    final int z1 = Math.min(z0 + 1, height - 1);
+                    final float fz = sz - z0;
+                    for (int x = 0; x < resolution; x++) {
+                        final float sx = x * stepX;
+                        final int x0 = Math.min((int) sx, width - 1);
+                        final int x1 = Math.min(x0 + 1, width - 1);
+                        final float fx = sx - x0;
+
+                        final float h0 = get(x0, z0) + fx * (get(x1, z0) - get(x0, z0));
+                        final float h1 = get(x0, z1) + fx * (get(x1, z1) - get(x0, z1));
+                        out[z * resolution + x] = minHeight + (h0 + fz * (h1 - h0)) * range;
+                    }
+                }
+            }
+        });
+
+        return out;
+    }
+
+}
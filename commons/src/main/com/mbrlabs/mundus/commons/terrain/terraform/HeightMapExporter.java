@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain.terraform;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes height grids as gray scale height maps, row by row. Supports the same
+ * formats as {@link HeightMapImporter}; PNG files are always written with 16
+ * bit.
+ *
+ * Heights are mapped linearly from [minHeight, maxHeight] to the sample range
+ * of the format.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class HeightMapExporter {
+
+    // maximal size of a PNG data chunk
+    private static final int PNG_CHUNK_SIZE = 64 * 1024;
+
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    /**
+     * Writes a height map. The format is determined by the file extension;
+     * .raw files are written with 16 bit.
+     */
+    public static void write(File file, float[] heights, int resolution, float minHeight, float maxHeight)
+            throws IOException {
+        final String name = file.getName().toLowerCase();
+        if (name.endsWith("." + HeightMapImporter.FORMAT_RAW_8)) {
+            writeRaw(file, heights, resolution, minHeight, maxHeight, 8);
+        } else if (name.endsWith("." + HeightMapImporter.FORMAT_RAW_16)
+                || name.endsWith("." + HeightMapImporter.FORMAT_RAW)) {
+            writeRaw(file, heights, resolution, minHeight, maxHeight, 16);
+        } else if (name.endsWith("." + HeightMapImporter.FORMAT_PGM)) {
+            writePgm(file, heights, resolution, minHeight, maxHeight, 16);
+        } else if (name.endsWith("." + HeightMapImporter.FORMAT_PNG)) {
+            writePng(file, heights, resolution, minHeight, maxHeight);
+        } else {
+            throw new GdxRuntimeException("Unsupported height map format: " + file.getPath());
+        }
+    }
+
+    /**
+     * Writes a headerless height map.
+     *
+     * @param bitDepth
+     *            8 or 16 (little endian)
+     */
+    public static void writeRaw(File file, float[] heights, int resolution, float minHeight, float maxHeight,
+            int bitDepth) throws IOException {
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(file));
+            writeRows(out, heights, resolution, minHeight, maxHeight, bitDepth, false);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Writes a binary (P5) portable gray map.
+     *
+     * @param bitDepth
+     *            8 or 16
+     */
+    public static void writePgm(File file, float[] heights, int resolution, float minHeight, float maxHeight,
+            int bitDepth) throws IOException {
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(file));
+            final int maxValue = bitDepth == 8 ? 255 : HeightMap.MAX_SAMPLE;
+            out.write(("P5\n" + resolution + " " + resolution + "\n" + maxValue + "\n").getBytes("US-ASCII"));
+            writeRows(out, heights, resolution, minHeight, maxHeight, bitDepth, true);
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Writes a 16 bit gray scale PNG file.
+     */
+    public static void writePng(File file, float[] heights, int resolution, float minHeight, float maxHeight)
+            throws IOException {
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.write(PNG_SIGNATURE);
+
+            final DataOutputStream header = new DataOutputStream(new PngChunkOutputStream(out, "IHDR"));
+            header.writeInt(resolution);
+            header.writeInt(resolution);
+            header.writeByte(16); // bit depth
+            header.writeByte(0); // color type: gray
+            header.writeByte(0); // compression
+            header.writeByte(0); // filter
+            header.writeByte(0); // interlace
+            header.close();
+
+            final DeflaterOutputStream data = new DeflaterOutputStream(new PngChunkOutputStream(out, "IDAT"));
+            final byte[] row = new byte[resolution * 2];
+            for (int z = 0; z < resolution; z++) {
+                int prev = 0;
+                for (int x = 0; x < resolution; x++) {
+                    final int value = toSample(heights[z * resolution + x], minHeight, maxHeight, 16);
+                    // sub filter (per byte): neighbouring samples of height
+                    // maps are similar, which compresses better
+                    row[x * 2] = (byte) ((value >> 8) - (prev >> 8));
+                    row[x * 2 + 1] = (byte) (value - prev);
+                    prev = value;
+                }
+                data.write(1);
+                data.write(row);
+            }
+            data.close();
+
+            new PngChunkOutputStream(out, "IEND").close();
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    private static void writeRows(OutputStream out, float[] heights, int resolution, float minHeight,
+            float maxHeight, int bitDepth, boolean bigEndian) throws IOException {
+        final int bytesPerSample = bitDepth / 8;
+        final byte[] row = new byte[resolution * bytesPerSample];
+        for (int z = 0; z < resolution; z++) {
+            for (int x = 0; x < resolution; x++) {
+                final int value = toSample(heights[z * resolution + x], minHeight, maxHeight, bitDepth);
+                if (bytesPerSample == 1) {
+                    row[x] = (byte) value;
+                } else if (bigEndian) {
+                    row[x * 2] = (byte) (value >> 8);
+                    row[x * 2 + 1] = (byte) value;
+                } else {
+                    row[x * 2] = (byte) value;
+                    row[x * 2 + 1] = (byte) (value >> 8);
+                }
+            }
+            out.write(row);
+        }
+    }
+
+    private static int toSample(float height, float minHeight, float maxHeight, int bitDepth) {
+        final int maxValue = bitDepth == 8 ? 255 : HeightMap.MAX_SAMPLE;
+        final float range = maxHeight - minHeight;
+        if (range <= 0) return 0;
+
+        final int value = Math.round((height - minHeight) / range * maxValue);
+        return Math.max(0, Math.min(maxValue, value));
+    }
+
+    /**
+     * Splits written data into PNG chunks of the given type. The underlying
+     * stream is not closed.
+     */
+    private static class PngChunkOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte[] type;
+        private final byte[] buffer = new byte[PNG_CHUNK_SIZE];
+        private final CRC32 crc = new CRC32();
+        private int size = 0;
+        private boolean written = false;
+
+        PngChunkOutputStream(DataOutputStream out, String type) throws IOException {
+            this.out = out;
+            this.type = type.getBytes("US-ASCII");
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (size == buffer.length) flushChunk();
+            buffer[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (size == buffer.length) flushChunk();
+                final int count = Math.min(len, buffer.length - size);
+                System.arraycopy(b, off, buffer, size, count);
+                size += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (size > 0 || !written) flushChunk();
+            out.flush();
+        }
+
+        private void flushChunk() throws IOException {
+            crc.reset();
+            crc.update(type);
+            crc.update(buffer, 0, size);
+            out.writeInt(size);
+            out.write(type);
+            out.write(buffer, 0, size);
+            out.writeInt((int) crc.getValue());
+            size = 0;
+            written = true;
+        }
+    }
+
+}
@@ -30,6 +30,7 @@ import java.nio.ByteBuffer;
 public class HeightMapGenerator extends Generator<HeightMapGenerator> {
 
     private Pixmap map;
+    private HeightMap heightMap;
 
     HeightMapGenerator(Terrain terrain) {
         super(terrain);
@@ -37,11 +38,28 @@ public class HeightMapGenerator extends Generator<HeightMapGenerator> {
 
     public HeightMapGenerator map(Pixmap map) {
         this.map = map;
+        this.heightMap = null;
+        return this;
+    }
+
+    /**
+     * Uses a height map of any size. It is resampled to the terrain
+     * resolution.
+     */
+    public HeightMapGenerator map(HeightMap heightMap) {
+        this.heightMap = heightMap;
+        this.map = null;
         return this;
     }
 
     @Override
     public void terraform() {
+        if (heightMap != null) {
+            heightMap.resample(terrain.heightData, terrain.vertexResolution, minHeight, maxHeight);
+            terrain.update();
+            return;
+        }
+
         if (map.getWidth() != terrain.vertexResolution || map.getHeight() != terrain.vertexResolution) {
             throw new GdxRuntimeException("Incorrect map size");
         }
@@ -72,7 +90,7 @@ public class HeightMapGenerator extends Generator<HeightMapGenerator> {
 
         float[] dest = new float[width * height];
         for (int i = 0; i < dest.length; ++i) {
-            int v = source[sourceOffset + i * 3];
+            int v = source[sourceOffset + i * bytesPerColor];
             v = v < 0 ? 256 + v : v;
             dest[i] = maxHeight * ((float) v / 255f);
         }
@@ -0,0 +1,444 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain.terraform;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads gray scale height maps row by row into a {@link HeightMap}.
+ *
+ * Supported formats:
+ * <ul>
+ * <li>RAW: headerless, square, 8 bit or 16 bit little endian (.raw, .r8,
+ * .r16)</li>
+ * <li>PGM: binary (P5), 8 or 16 bit</li>
+ * <li>PNG: gray, gray + alpha, RGB or RGBA with 8 or 16 bit per channel, not
+ * interlaced. Only the first channel is used.</li>
+ * </ul>
+ *
+ * Other PNG files (palette, interlaced, less than 8 bit) are not supported,
+ * they can still be loaded through a Pixmap.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class HeightMapImporter {
+
+    public static final String FORMAT_RAW = "raw";
+    public static final String FORMAT_RAW_8 = "r8";
+    public static final String FORMAT_RAW_16 = "r16";
+    public static final String FORMAT_PGM = "pgm";
+    public static final String FORMAT_PNG = "png";
+
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    /**
+     * @return true if the file has a supported height map format. For PNG
+     *         files the header is read, to check the pixel format.
+     */
+    public static boolean isSupported(FileHandle file) {
+        final String ext = file.extension().toLowerCase();
+        if (ext.equals(FORMAT_PNG)) {
+            return isSupportedPng(file);
+        }
+        return ext.equals(FORMAT_RAW) || ext.equals(FORMAT_RAW_8) || ext.equals(FORMAT_RAW_16)
+                || ext.equals(FORMAT_PGM);
+    }
+
+    private static boolean isSupportedPng(FileHandle file) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(file.read()));
+            return readPngHeader(in, file).isSupported();
+        } catch (IOException e) {
+            return false;
+        } catch (GdxRuntimeException e) {
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Reads a height map. The format is determined by the file extension.
+     */
+    public static HeightMap read(FileHandle file) {
+        final String ext = file.extension().toLowerCase();
+        if (ext.equals(FORMAT_RAW_8)) {
+            return readRaw(file, 8);
+        } else if (ext.equals(FORMAT_RAW_16)) {
+            return readRaw(file, 16);
+        } else if (ext.equals(FORMAT_RAW)) {
+            // square 16 bit files have an even number of samples, that is
+            // never a square number of bytes
+            final int side = (int) Math.round(Math.sqrt(file.length()));
+            return readRaw(file, (long) side * side == file.length() ? 8 : 16);
+        } else if (ext.equals(FORMAT_PGM)) {
+            return readPgm(file);
+        } else if (ext.equals(FORMAT_PNG)) {
+            return readPng(file);
+        }
+
+        throw new GdxRuntimeException("Unsupported height map format: " + file.path());
+    }
+
+    /**
+     * Reads a square, headerless height map.
+     *
+     * @param bitDepth
+     *            8 or 16 (little endian)
+     */
+    public static HeightMap readRaw(FileHandle file, int bitDepth) {
+        final int bytesPerSample = bitDepth / 8;
+        final int side = (int) Math.round(Math.sqrt(file.length() / bytesPerSample));
+        if ((long) side * side * bytesPerSample != file.length()) {
+            throw new GdxRuntimeException("RAW height map is not square: " + file.path());
+        }
+
+        final HeightMap map = new HeightMap(side, side);
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(file.read());
+            readRows(in, map, bytesPerSample, 1, false);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading height map: " + file.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+
+        return map;
+    }
+
+    /**
+     * Reads a binary (P5) portable gray map.
+     */
+    public static HeightMap readPgm(FileHandle file) {
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(file.read());
+            if (in.read() != 'P' || in.read() != '5') {
+                throw new GdxRuntimeException("Not a binary PGM file: " + file.path());
+            }
+            final int width = readPgmValue(in);
+            final int height = readPgmValue(in);
+            final int maxValue = readPgmValue(in);
+            if (maxValue <= 0 || maxValue > HeightMap.MAX_SAMPLE) {
+                throw new GdxRuntimeException("Invalid PGM max value " + maxValue + ": " + file.path());
+            }
+
+            final HeightMap map = new HeightMap(width, height);
+            // samples are big endian & need to be stretched to the full range
+            readRows(in, map, maxValue < 256 ? 1 : 2, 1, true);
+            if (maxValue != 255 && maxValue != HeightMap.MAX_SAMPLE) {
+                final short[] samples = map.samples;
+                for (int i = 0; i < samples.length; i++) {
+                    int value = samples[i] & HeightMap.MAX_SAMPLE;
+                    if (maxValue < 256) value /= 257;
+                    samples[i] = (short) Math.min(HeightMap.MAX_SAMPLE, (long) value * HeightMap.MAX_SAMPLE / maxValue);
+                }
+            }
+
+            return map;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading height map: " + file.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Reads a non interlaced PNG file. Rows are decompressed & unfiltered one
+     * at a time.
+     */
+    public static HeightMap readPng(FileHandle file) {
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(file.read()));
+            final PngHeader header = readPngHeader(in, file);
+            if (!header.isSupported()) {
+                throw new GdxRuntimeException("Unsupported PNG (color type " + header.colorType + ", bit depth "
+                        + header.bitDepth + ", interlace " + header.interlace + "): " + file.path());
+            }
+
+            final HeightMap map = new HeightMap(header.width, header.height);
+            final InputStream pixels = new InflaterInputStream(new PngChunkInputStream(in));
+            readPngRows(pixels, map, header.bitDepth / 8, header.getChannels());
+
+            return map;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error reading height map: " + file.path(), e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Reads the PNG signature & the IHDR chunk.
+     */
+    private static PngHeader readPngHeader(DataInputStream in, FileHandle file) throws IOException {
+        for (byte b : PNG_SIGNATURE) {
+            if (in.readByte() != b) {
+                throw new GdxRuntimeException("Not a PNG file: " + file.path());
+            }
+        }
+
+        // IHDR is always the first chunk
+        final int headerLength = in.readInt();
+        if (in.readInt() != PngChunkInputStream.TYPE_IHDR || headerLength != 13) {
+            throw new GdxRuntimeException("Invalid PNG header: " + file.path());
+        }
+        final PngHeader header = new PngHeader();
+        header.width = in.readInt();
+        header.height = in.readInt();
+        header.bitDepth = in.readUnsignedByte();
+        header.colorType = in.readUnsignedByte();
+        in.readUnsignedByte(); // compression method
+        in.readUnsignedByte(); // filter method
+        header.interlace = in.readUnsignedByte();
+        in.readInt(); // crc
+
+        return header;
+    }
+
+    /**
+     * Reads unfiltered rows & keeps the first channel of every pixel.
+     */
+    private static void readRows(InputStream in, HeightMap map, int bytesPerSample, int channels, boolean bigEndian)
+            throws IOException {
+        final int pixelSize = bytesPerSample * channels;
+        final byte[] row = new byte[map.width * pixelSize];
+        for (int z = 0; z < map.height; z++) {
+            readFully(in, row);
+            decodeRow(row, map, z, bytesPerSample, pixelSize, bigEndian);
+        }
+    }
+
+    private static void readPngRows(InputStream in, HeightMap map, int bytesPerSample, int channels)
+            throws IOException {
+        final int pixelSize = bytesPerSample * channels;
+        byte[] row = new byte[map.width * pixelSize];
+        byte[] prev = new byte[row.length];
+        for (int z = 0; z < map.height; z++) {
+            final int filter = in.read();
+            readFully(in, row);
+            unfilter(filter, row, prev, pixelSize);
+            decodeRow(row, map, z, bytesPerSample, pixelSize, true);
+
+            final byte[] tmp = prev;
+            prev = row;
+            row = tmp;
+        }
+    }
+
+    private static void decodeRow(byte[] row, HeightMap map, int z, int bytesPerSample, int pixelSize,
+            boolean bigEndian) {
+        final short[] samples = map.samples;
+        int index = z * map.width;
+        for (int i = 0; i < row.length; i += pixelSize) {
+            final int value;
+            if (bytesPerSample == 1) {
+                value = (row[i] & 0xff) * 257;
+            } else if (bigEndian) {
+                value = (row[i] & 0xff) << 8 | (row[i + 1] & 0xff);
+            } else {
+                value = (row[i + 1] & 0xff) << 8 | (row[i] & 0xff);
+            }
+            samples[index++] = (short) value;
+        }
+    }
+
+    /**
+     * Reverses the PNG row filter in place.
+     */
+    private static void unfilter(int filter, byte[] row, byte[] prev, int bpp) throws IOException {
+        switch (filter) {
+        case 0: // none
+            break;
+        case 1: // sub
+            for (int i = bpp; i < row.length; i++) {
+                row[i] += row[i - bpp];
+            }
+            break;
+        case 2: // up
+            for (int i = 0; i < row.length; i++) {
+                row[i] += prev[i];
+            }
+            break;
+        case 3: // average
+            for (int i = 0; i < row.length; i++) {
+                final int left = i >= bpp ? row[i - bpp] & 0xff : 0;
+                row[i] += (left + (prev[i] & 0xff)) >> 1;
+            }
+            break;
+        case 4: // paeth
+            for (int i = 0; i < row.length; i++) {
+                final int a = i >= bpp ? row[i - bpp] & 0xff : 0;
+                final int b = prev[i] & 0xff;
+                final int c = i >= bpp ? prev[i - bpp] & 0xff : 0;
+                final int p = a + b - c;
+                final int pa = Math.abs(p - a);
+                final int pb = Math.abs(p - b);
+                final int pc = Math.abs(p - c);
+                row[i] += (pa <= pb && pa <= pc) ? a : (pb <= pc ? b : c);
+            }
+            break;
+        default:
+            throw new IOException("Invalid PNG filter type " + filter);
+        }
+    }
+
+    private static int readPgmValue(InputStream in) throws IOException {
+        int c = in.read();
+        // skip whitespace & comments
+        while (c == '#' || Character.isWhitespace(c)) {
+            if (c == '#') {
+                while (c != '\n' && c != -1) {
+                    c = in.read();
+                }
+            }
+            c = in.read();
+        }
+
+        int value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            c = in.read();
+        }
+        // c is the single whitespace character after the value
+        if (c == -1) throw new EOFException();
+
+        return value;
+    }
+
+    private static void readFully(InputStream in, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            final int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) throw new EOFException();
+            offset += read;
+        }
+    }
+
+    private static class PngHeader {
+        int width;
+        int height;
+        int bitDepth;
+        int colorType;
+        int interlace;
+
+        /**
+         * @return number of channels or 0 for unsupported color types
+         *         (palette)
+         */
+        int getChannels() {
+            switch (colorType) {
+            case 0:
+                return 1;
+            case 2:
+                return 3;
+            case 4:
+                return 2;
+            case 6:
+                return 4;
+            default:
+                return 0;
+            }
+        }
+
+        boolean isSupported() {
+            return getChannels() > 0 && (bitDepth == 8 || bitDepth == 16) && interlace == 0;
+        }
+    }
+
+    /**
+     * Concatenated data of all IDAT chunks of a PNG stream. All other chunks
+     * are skipped.
+     */
+    private static class PngChunkInputStream extends InputStream {
+
+        static final int TYPE_IHDR = 0x49484452;
+        static final int TYPE_IDAT = 0x49444154;
+        static final int TYPE_IEND = 0x49454e44;
+
+        private final DataInputStream in;
+        private int remaining = 0;
+        private boolean inData = false;
+        private boolean end = false;
+
+        PngChunkInputStream(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextData()) return -1;
+            remaining--;
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (!nextData()) return -1;
+            final int read = in.read(b, off, Math.min(len, remaining));
+            if (read < 0) throw new EOFException();
+            remaining -= read;
+            return read;
+        }
+
+        /**
+         * @return false if there is no more image data
+         */
+        private boolean nextData() throws IOException {
+            while (remaining == 0 && !end) {
+                if (inData) {
+                    in.readInt(); // crc of the finished IDAT chunk
+                    inData = false;
+                }
+
+                final int length = in.readInt();
+                final int type = in.readInt();
+                if (type == TYPE_IDAT) {
+                    remaining = length;
+                    inData = true;
+                } else {
+                    skipFully(length);
+                    in.readInt(); // crc
+                    end = type == TYPE_IEND;
+                }
+            }
+
+            return remaining > 0;
+        }
+
+        private void skipFully(int count) throws IOException {
+            while (count > 0) {
+                final int skipped = (int) in.skip(count);
+                if (skipped <= 0) throw new EOFException();
+                count -= skipped;
+            }
+        }
+    }
+
+}
@@ -18,22 +18,32 @@ package com.mbrlabs.mundus.commons.terrain.terraform;
 
 import com.badlogic.gdx.math.Interpolation;
 import com.mbrlabs.mundus.commons.terrain.Terrain;
-
-import java.util.Random;
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
 
 /**
+ * Fills the terrain with fractal gradient noise. Rows of the height grid are
+ * generated in parallel.
  *
  * @author Marcus Brummer
  * @version 20-06-2016
  */
 public class PerlinNoiseGenerator extends Generator<PerlinNoiseGenerator> {
 
-    private Random rand = new Random();
+    public static final int DEFAULT_OCTAVES = 2;
+    public static final float DEFAULT_ROUGHNESS = 0.33f;
+
+    // noise frequency of the first octave, per grid cell
+    private static final float BASE_FREQUENCY = 0.25f;
+    // minimal number of rows per thread
+    private static final int ROWS_PER_TASK = 16;
+
     private long seed = 0;
     // number of noise functions
-    private int octaves = 1;
+    private int octaves = DEFAULT_OCTAVES;
     // decrease of amplitude per octave
-    private float roughness = 0;
+    private float roughness = DEFAULT_ROUGHNESS;
+    // increase of frequency per octave
+    private float lacunarity = 2;
 
     PerlinNoiseGenerator(Terrain terrain) {
         super(terrain);
@@ -54,63 +64,47 @@ public class PerlinNoiseGenerator extends Generator<PerlinNoiseGenerator> {
         return this;
     }
 
+    public PerlinNoiseGenerator lacunarity(float lacunarity) {
+        this.lacunarity = lacunarity;
+        return this;
+    }
+
     @Override
     public void terraform() {
-        rand.setSeed(seed);
-
-        // final float d = (float) Math.pow(2, this.octaves);
-
-        for (int i = 0; i < terrain.heightData.length; i++) {
-            int x = i % terrain.vertexResolution;
-            int z = (int) Math.floor((double) i / terrain.vertexResolution);
-
-            float height = Interpolation.linear.apply(minHeight, maxHeight, getInterpolatedNoise(x / 4f, z / 4f));
-            height += Interpolation.linear.apply(minHeight / 3f, maxHeight / 3f, getInterpolatedNoise(x / 2f, z / 2f));
-
-            terrain.heightData[z * terrain.vertexResolution + x] = height;
-        }
+        final GradientNoise noise = new GradientNoise(seed);
+        final float[] heightData = terrain.heightData;
+        final int res = terrain.vertexResolution;
+        final int octaves = Math.max(1, this.octaves);
+
+        ParallelUtils.forRange(res, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+            @Override
+            public void run(int from, int to) {
+                for (int z = from; z < to; z++) {
+                    for (int x = 0; x < res; x++) {
+                        heightData[z * res + x] = sample(noise, x, z, octaves, lacunarity, roughness, minHeight,
+                                maxHeight);
+                    }
+                }
+            }
+        });
 
         terrain.update();
     }
 
-    private float interpolate(float a, float b, float blend) {
-        double theta = blend * Math.PI;
-        float f = (float) (1f - Math.cos(theta)) * 0.5f;
-        return a * (1f - f) + b * f;
-    }
-
-    private float getNoise(int x, int z) {
-        rand.setSeed(x * 49632 + z * 325176 + seed);
-        return rand.nextFloat();
-    }
-
-    private float getInterpolatedNoise(float x, float z) {
-        int intX = (int) x;
-        int intZ = (int) z;
-        float fracX = x - intX;
-        float fracZ = z - intZ;
-
-        float v1 = getSmoothNoise(intX, intZ);
-        float v2 = getSmoothNoise(intX + 1, intZ);
-        float v3 = getSmoothNoise(intX, intZ + 1);
-        float v4 = getSmoothNoise(intX + 1, intZ + 1);
-        float i1 = interpolate(v1, v2, fracX);
-        float i2 = interpolate(v3, v4, fracX);
-        return interpolate(i1, i2, fracZ);
-    }
-
-    private float getSmoothNoise(int x, int z) {
-        // corner noise
-        float corners = getNoise(x + 1, z - 1) + getNoise(x + 1, z - 1) + getNoise(x - 1, z + 1)
-                + getNoise(x + 1, z + 1);
-        corners /= 16f;
-        // side noise
-        float sides = getNoise(x - 1, z) + getNoise(x + 1, z) + getNoise(x, z - 1) + getNoise(x, z + 1);
-        sides /= 8f;
-        // center noise
-        float center = getNoise(x, z) / 4f;
-
-        return corners + sides + center;
+    /**
+     * Evaluates the fractal noise at a grid position. Shared with the noise
+     * stage of the {@link TerrainPipeline}.
+     *
+     * @param x
+     *            grid column; may be fractional
+     * @param z
+     *            grid row; may be fractional
+     * @return noise height, mapped onto [minHeight, maxHeight]
+     */
+    static float sample(GradientNoise noise, float x, float z, int octaves, float lacunarity, float roughness,
+            float minHeight, float maxHeight) {
+        final float n = noise.fbm(x * BASE_FREQUENCY, z * BASE_FREQUENCY, octaves, lacunarity, roughness);
+        return Interpolation.linear.apply(minHeight, maxHeight, (n + 1) * 0.5f);
     }
 
 }
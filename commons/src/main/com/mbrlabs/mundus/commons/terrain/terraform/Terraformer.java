@@ -34,4 +34,8 @@ public class Terraformer {
         return new HeightMapGenerator(terrain);
     }
 
+    public static TerrainPipeline pipeline(Terrain terrain) {
+        return new TerrainPipeline(terrain);
+    }
+
 }
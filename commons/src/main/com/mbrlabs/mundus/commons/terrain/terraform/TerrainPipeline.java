@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.commons.terrain.terraform;
+
+import com.badlogic.gdx.utils.Array;
+import com.mbrlabs.mundus.commons.terrain.Terrain;
+import com.mbrlabs.mundus.commons.utils.ParallelUtils;
+
+/**
+ * Chain of terrain generation stages.
+ *
+ * Successive point stages (noise, terrace, clamp, blend) only depend on the
+ * height & position of a single vertex. They are fused and evaluated in one
+ * pass per tile of rows, in parallel. Grid stages (erosion) need the
+ * neighbours of a vertex and run as separate passes over the whole grid. The
+ * terrain mesh is updated once, after all stages have run.
+ *
+ * The same pipeline can be evaluated at a lower resolution with
+ * {@link #preview(int)}, without modifying the terrain.
+ *
+ * Noise, terrace & clamp stages use the min & max height of the pipeline.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerrainPipeline extends Generator<TerrainPipeline> {
+
+    /**
+     * Stage, that computes the new height of a vertex from its current height
+     * and position.
+     */
+    public interface PointStage {
+        /**
+         * @param height
+         *            current height
+         * @param x
+         *            position in terrain grid coordinates; fractional in
+         *            previews
+         * @param z
+         *            position in terrain grid coordinates; fractional in
+         *            previews
+         * @return new height
+         */
+        float apply(float height, float x, float z);
+    }
+
+    /**
+     * Stage, that works on the whole height grid.
+     */
+    public interface GridStage {
+        /**
+         * @param heights
+         *            height values, row by row
+         * @param resolution
+         *            number of vertices along one side
+         * @param cellSize
+         *            distance between two vertices in world units
+         */
+        void apply(float[] heights, int resolution, float cellSize);
+    }
+
+    // minimal number of rows per thread
+    private static final int ROWS_PER_TASK = 16;
+
+    // PointStage or GridStage
+    private final Array<Object> stages = new Array<Object>();
+
+    TerrainPipeline(Terrain terrain) {
+        super(terrain);
+    }
+
+    public TerrainPipeline stage(PointStage stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    public TerrainPipeline gridStage(GridStage stage) {
+        stages.add(stage);
+        return this;
+    }
+
+    /**
+     * Replaces the heights with fractal noise between min & max height, using
+     * the default octaves & roughness of the {@link PerlinNoiseGenerator}.
+     */
+    public TerrainPipeline noise(long seed) {
+        return noise(seed, PerlinNoiseGenerator.DEFAULT_OCTAVES, PerlinNoiseGenerator.DEFAULT_ROUGHNESS);
+    }
+
+    /**
+     * Replaces the heights with fractal noise between min & max height.
+     */
+    public TerrainPipeline noise(long seed, int octaves, float roughness) {
+        return stage(new NoiseStage(seed, Math.max(1, octaves), roughness));
+    }
+
+    /**
+     * Turns slopes into terraces.
+     *
+     * @param steps
+     *            number of terraces between min & max height
+     */
+    public TerrainPipeline terrace(int steps) {
+        return stage(new TerraceStage(Math.max(1, steps)));
+    }
+
+    /**
+     * Thermal erosion: material slides down slopes steeper than the talus
+     * slope.
+     *
+     * @param iterations
+     *            number of erosion passes
+     * @param talus
+     *            maximum stable slope (height / distance)
+     */
+    public TerrainPipeline erode(int iterations, float talus) {
+        return gridStage(new ThermalErosionStage(iterations, talus));
+    }
+
+    /**
+     * Clamps heights to min & max height.
+     */
+    public TerrainPipeline clamp() {
+        return stage(new ClampStage());
+    }
+
+    /**
+     * Blends the heights with a height map.
+     *
+     * @param heightMap
+     *            height values, row by row; stretched over the whole terrain
+     * @param resolution
+     *            number of values along one side of the height map
+     * @param weight
+     *            0 keeps the current heights, 1 uses the height map only
+     */
+    public TerrainPipeline blend(float[] heightMap, int resolution, float weight) {
+        return stage(new BlendStage(heightMap, resolution, weight));
+    }
+
+    /**
+     * Runs all stages on the terrain heights and updates the terrain mesh.
+     */
+    @Override
+    public void terraform() {
+        evaluate(terrain.heightData, terrain.vertexResolution, 1f);
+        terrain.update();
+    }
+
+    /**
+     * Runs all stages on a resampled copy of the terrain heights. The terrain
+     * is not modified.
+     *
+     * @param resolution
+     *            number of vertices along one side of the preview
+     * @return preview heights, row by row
+     */
+    public float[] preview(int resolution) {
+        final int res = Math.max(2, resolution);
+        final float step = (terrain.vertexResolution - 1) / (float) (res - 1);
+        final float[] heights = new float[res * res];
+        for (int z = 0; z < res; z++) {
+            for (int x = 0; x < res; x++) {
+                heights[z * res + x] = sampleGrid(terrain.heightData, terrain.vertexResolution, x * step, z * step);
+            }
+        }
+
+        evaluate(heights, res, step);
+        return heights;
+    }
+
+    private void evaluate(final float[] heights, final int res, final float step) {
+        final float cellSize = terrain.terrainWidth / (float) (res - 1);
+
+        int i = 0;
+        while (i < stages.size) {
+            if (stages.get(i) instanceof GridStage) {
+                ((GridStage) stages.get(i)).apply(heights, res, cellSize);
+                i++;
+                continue;
+            }
+
+            // fuse all successive point stages into one pass
+            int end = i;
+            while (end < stages.size && stages.get(end) instanceof PointStage) {
+                end++;
+            }
+            final PointStage[] fused = new PointStage[end - i];
+            for (int j = 0; j < fused.length; j++) {
+                fused[j] = (PointStage) stages.get(i + j);
+            }
+            i = end;
+
+            ParallelUtils.forRange(res, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int z = from; z < to; z++) {
+                        for (int x = 0; x < res; x++) {
+                            final int index = z * res + x;
+                            float h = heights[index];
+                            for (PointStage stage : fused) {
+                                h = stage.apply(h, x * step, z * step);
+                            }
+                            heights[index] = h;
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Bilinear sample of a height grid.
+     */
+    private static float sampleGrid(float[] grid, int res, float x, float z) {
+        final int x0 = Math.min((int) x, res - 2);
+        final int z0 = Math.min((int) z, res - 2);
+        final float fx = x - x0;
+        final float fz = z - z0;
+        final float h0 = grid[z0 * res + x0] + fx * (grid[z0 * res + x0 + 1] - grid[z0 * res + x0]);
+        final float h1 = grid[(z0 + 1) * res + x0] + fx * (grid[(z0 + 1) * res + x0 + 1] - grid[(z0 + 1) * res + x0]);
+        return h0 + fz * (h1 - h0);
+    }
+
+    private class NoiseStage implements PointStage {
+        private final GradientNoise noise;
+        private final int octaves;
+        private final float roughness;
+
+        NoiseStage(long seed, int octaves, float roughness) {
+            this.noise = new GradientNoise(seed);
+            this.octaves = octaves;
+            this.roughness = roughness;
+        }
+
+        @Override
+        public float apply(float height, float x, float z) {
+            return PerlinNoiseGenerator.sample(noise, x, z, octaves, 2, roughness, minHeight, maxHeight);
+        }
+    }
+
+    private class TerraceStage implements PointStage {
+        private final int steps;
+
+        TerraceStage(int steps) {
+            this.steps = steps;
+        }
+
+        @Override
+        public float apply(float height, float x, float z) {
+            final float range = maxHeight - minHeight;
+            if (range <= 0) return height;
+
+            final float t = (height - minHeight) / range * steps;
+            final float step = (float) Math.floor(t);
+            final float f = t - step;
+            // flat plateaus with steep edges
+            return minHeight + (step + f * f * f) / steps * range;
+        }
+    }
+
+    private class ClampStage implements PointStage {
+        @Override
+        public float apply(float height, float x, float z) {
+            return Math.max(minHeight, Math.min(maxHeight, height));
+        }
+    }
+
+    private class BlendStage implements PointStage {
+        private final float[] heightMap;
+        private final int resolution;
+        private final float weight;
+        // terrain grid to height map coordinates
+        private final float scale;
+
+        BlendStage(float[] heightMap, int resolution, float weight) {
+            this.heightMap = heightMap;
+            this.resolution = resolution;
+            this.weight = weight;
+            this.scale = (resolution - 1) / (float) (terrain.vertexResolution - 1);
+        }
+
+        @Override
+        public float apply(float height, float x, float z) {
+            return height + weight * (sampleGrid(heightMap, resolution, x * scale, z * scale) - height);
+        }
+    }
+
+    /**
+     * Thermal erosion. Every vertex moves material to its lowest neighbour, if
+     * the slope exceeds the talus slope. Outflows are computed first and
+     * applied in a second pass, so both passes can run in parallel.
+     */
+    private static class ThermalErosionStage implements GridStage {
+        // fraction of the excess height, that is moved per iteration
+        private static final float RATE = 0.25f;
+
+        private final int iterations;
+        private final float talus;
+
+        ThermalErosionStage(int iterations, float talus) {
+            this.iterations = iterations;
+            this.talus = talus;
+        }
+
+        @Override
+        public void apply(final float[] heights, final int res, float cellSize) {
+            final float maxDiff = talus * cellSize;
+            final float[] outflow = new float[heights.length];
+            final int[] target = new int[heights.length];
+
+            for (int it = 0; it < iterations; it++) {
+                ParallelUtils.forRange(res, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+                    @Override
+                    public void run(int from, int to) {
+                        for (int z = from; z < to; z++) {
+                            for (int x = 0; x < res; x++) {
+                                final int i = z * res + x;
+                                int lowest = -1;
+                                float diff = maxDiff;
+                                if (x > 0 && heights[i] - heights[i - 1] > diff) {
+                                    lowest = i - 1;
+                                    diff = heights[i] - heights[i - 1];
+                                }
+                                if (x < res - 1 && heights[i] - heights[i + 1] > diff) {
+                                    lowest = i + 1;
+                                    diff = heights[i] - heights[i + 1];
+                                }
+                                if (z > 0 && heights[i] - heights[i - res] > diff) {
+                                    lowest = i - res;
+                                    diff = heights[i] - heights[i - res];
+                                }
+                                if (z < res - 1 && heights[i] - heights[i + res] > diff) {
+                                    lowest = i + res;
+                                    diff = heights[i] - heights[i + res];
+                                }
+                                target[i] = lowest;
+                                outflow[i] = lowest < 0 ? 0 : (diff - maxDiff) * RATE;
+                            }
+                        }
+                    }
+                });
+
+                ParallelUtils.forRange(res, ROWS_PER_TASK, new ParallelUtils.RangeTask() {
+                    @Override
+                    public void run(int from, int to) {
+                        for (int z = from; z < to; z++) {
+                            for (int x = 0; x < res; x++) {
+                                final int i = z * res + x;
+                                float h = heights[i] - outflow[i];
+                                if (x > 0 && target[i - 1] == i) h += outflow[i - 1];
+                                if (x < res - 1 && target[i + 1] == i) h += outflow[i + 1];
+                                if (z > 0 && target[i - res] == i) h += outflow[i - res];
+                                if (z < res - 1 && target[i + res] == i) h += outflow[i + res];
+                                heights[i] = h;
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+}
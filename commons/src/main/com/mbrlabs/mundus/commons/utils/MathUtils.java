@@ -26,11 +26,20 @@ import com.badlogic.gdx.math.Vector3;
 public class MathUtils {
 
     public static float barryCentric(Vector3 p1, Vector3 p2, Vector3 p3, Vector2 pos) {
-        float det = (p2.z - p3.z) * (p1.x - p3.x) + (p3.x - p2.x) * (p1.z - p3.z);
-        float l1 = ((p2.z - p3.z) * (pos.x - p3.x) + (p3.x - p2.x) * (pos.y - p3.z)) / det;
-        float l2 = ((p3.z - p1.z) * (pos.x - p3.x) + (p1.x - p3.x) * (pos.y - p3.z)) / det;
+        return barryCentric(p1.x, p1.y, p1.z, p2.x, p2.y, p2.z, p3.x, p3.y, p3.z, pos.x, pos.y);
+    }
+
+    /**
+     * Allocation free version of
+     * {@link #barryCentric(Vector3, Vector3, Vector3, Vector2)}.
+     */
+    public static float barryCentric(float x1, float y1, float z1, float x2, float y2, float z2, float x3, float y3,
+            float z3, float posX, float posY) {
+        float det = (z2 - z3) * (x1 - x3) + (x3 - x2) * (z1 - z3);
+        float l1 = ((z2 - z3) * (posX - x3) + (x3 - x2) * (posY - z3)) / det;
+        float l2 = ((z3 - z1) * (posX - x3) + (x1 - x3) * (posY - z3)) / det;
         float l3 = 1.0f - l1 - l2;
-        return l1 * p1.y + l2 * p2.y + l3 * p3.y;
+        return l1 * y1 + l2 * y2 + l3 * y3;
     }
 
     public static float dst(float x1, float y1, float x2, float y2) {
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.utils;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Splits index ranges across all available cores.
+ *
+ * Tasks must only write to disjoint parts of shared data and must not touch
+ * any OpenGL state. Tasks must not call forRange themselves.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class ParallelUtils {
+
+    /**
+     * Work on a range of indices.
+     */
+    public interface RangeTask {
+        /**
+         * @param from
+         *            first index (inclusive)
+         * @param to
+         *            last index (exclusive)
+         */
+        void run(int from, int to);
+    }
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static ExecutorService executor;
+
+    /**
+     * Runs the task for the index range [0, count). The range is split into
+     * one chunk per core, if it holds at least minChunkSize indices per chunk.
+     * Otherwise the task runs in the calling thread. Returns after all chunks
+     * have finished.
+     *
+     * @param count
+     *            number of indices
+     * @param minChunkSize
+     *            minimal number of indices, that are worth a separate thread
+     * @param task
+     *            the work
+     */
+    public static void forRange(int count, int minChunkSize, final RangeTask task) {
+        final int chunks = Math.min(THREADS, count / Math.max(1, minChunkSize));
+        if (chunks <= 1) {
+            task.run(0, count);
+            return;
+        }
+
+        final int chunkSize = (count + chunks - 1) / chunks;
+        final List<Future<?>> futures = new ArrayList<Future<?>>(chunks);
+        for (int from = chunkSize; from < count; from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(count, from + chunkSize);
+            futures.add(getExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    task.run(start, end);
+                }
+            }));
+        }
+
+        // the calling thread does the first chunk
+        task.run(0, Math.min(count, chunkSize));
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GdxRuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new GdxRuntimeException(e.getCause());
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "mundus-worker-" + count++);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.test;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.utils.Array;
+import com.mbrlabs.mundus.commons.scene3d.DynamicBvh;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class DynamicBvhTest {
+
+    @Test
+    public void queriesMatchBruteForce() {
+        final Random random = new Random(42);
+        final DynamicBvh<Integer> bvh = new DynamicBvh<Integer>();
+        final BoundingBox[] boxes = new BoundingBox[500];
+        final int[] proxies = new int[boxes.length];
+
+        for (int step = 0; step < 2000; step++) {
+            final int i = random.nextInt(boxes.length);
+            if (boxes[i] != null && random.nextInt(4) == 0) {
+                bvh.remove(proxies[i]);
+                boxes[i] = null;
+                continue;
+            }
+
+            final Vector3 min = new Vector3(random.nextFloat() * 200, random.nextFloat() * 200,
+                    random.nextFloat() * 200);
+            final Vector3 max = new Vector3(min).add(random.nextFloat() * 5 + 0.1f);
+            if (boxes[i] != null) {
+                boxes[i] = new BoundingBox(min, max);
+                bvh.update(proxies[i], boxes[i]);
+            } else {
+                boxes[i] = new BoundingBox(min, max);
+                proxies[i] = bvh.insert(boxes[i], i);
+            }
+        }
+
+        final BoundingBox query = new BoundingBox(new Vector3(50, 50, 50), new Vector3(120, 120, 120));
+        final Array<Integer> result = bvh.query(query, new Array<Integer>());
+
+        int count = 0;
+        final BoundingBox fat = new BoundingBox();
+        for (int i = 0; i < boxes.length; i++) {
+            if (boxes[i] == null) continue;
+            count++;
+            if (query.intersects(boxes[i])) {
+                Assert.assertTrue(result.contains(i, false));
+            }
+            if (!query.intersects(bvh.getFatBounds(proxies[i], fat))) {
+                Assert.assertFalse(result.contains(i, false));
+            }
+        }
+        Assert.assertEquals(count, bvh.size());
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMap;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMapExporter;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMapImporter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Round trips of all height map formats & decoding of PNG files written by
+ * ImageIO.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class HeightMapTest {
+
+    private static final int RESOLUTION = 33;
+    private static final float MIN_HEIGHT = -20f;
+    private static final float MAX_HEIGHT = 80f;
+
+    private final List<File> files = new ArrayList<File>();
+
+    @After
+    public void tearDown() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void raw8RoundTrip() throws IOException {
+        assertRoundTrip(HeightMapImporter.FORMAT_RAW_8, 1f / 255);
+    }
+
+    @Test
+    public void raw16RoundTrip() throws IOException {
+        assertRoundTrip(HeightMapImporter.FORMAT_RAW_16, 1f / HeightMap.MAX_SAMPLE);
+    }
+
+    @Test
+    public void rawRoundTrip() throws IOException {
+        assertRoundTrip(HeightMapImporter.FORMAT_RAW, 1f / HeightMap.MAX_SAMPLE);
+    }
+
+    @Test
+    public void pgmRoundTrip() throws IOException {
+        assertRoundTrip(HeightMapImporter.FORMAT_PGM, 1f / HeightMap.MAX_SAMPLE);
+    }
+
+    @Test
+    public void pgm8RoundTrip() throws IOException {
+        final float[] heights = createHeights();
+        final File file = createFile(HeightMapImporter.FORMAT_PGM);
+        HeightMapExporter.writePgm(file, heights, RESOLUTION, MIN_HEIGHT, MAX_HEIGHT, 8);
+        assertHeights(heights, file, 1f / 255);
+    }
+
+    @Test
+    public void pngRoundTrip() throws IOException {
+        assertRoundTrip(HeightMapImporter.FORMAT_PNG, 1f / HeightMap.MAX_SAMPLE);
+    }
+
+    @Test
+    public void readPngGray8() throws IOException {
+        assertPng(BufferedImage.TYPE_BYTE_GRAY, 1f / 255);
+    }
+
+    @Test
+    public void readPngGray16() throws IOException {
+        assertPng(BufferedImage.TYPE_USHORT_GRAY, 1f / HeightMap.MAX_SAMPLE);
+    }
+
+    @Test
+    public void readPngRgb() throws IOException {
+        assertPng(BufferedImage.TYPE_INT_RGB, 1f / 255);
+    }
+
+    @Test
+    public void readPngRgba() throws IOException {
+        assertPng(BufferedImage.TYPE_INT_ARGB, 1f / 255);
+    }
+
+    @Test
+    public void unsupportedPngs() throws IOException {
+        // palette
+        final File indexed = createFile(HeightMapImporter.FORMAT_PNG);
+        ImageIO.write(createImage(BufferedImage.TYPE_BYTE_INDEXED), "png", indexed);
+        Assert.assertFalse(HeightMapImporter.isSupported(new FileHandle(indexed)));
+
+        // interlaced
+        final File interlaced = createFile(HeightMapImporter.FORMAT_PNG);
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        final ImageOutputStream out = ImageIO.createImageOutputStream(interlaced);
+        try {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(createImage(BufferedImage.TYPE_BYTE_GRAY), null, null), param);
+        } finally {
+            out.close();
+            writer.dispose();
+        }
+        Assert.assertFalse(HeightMapImporter.isSupported(new FileHandle(interlaced)));
+
+        // 4 bit gray, only the header is needed
+        final File gray4 = createFile(HeightMapImporter.FORMAT_PNG);
+        final DataOutputStream header = new DataOutputStream(new FileOutputStream(gray4));
+        try {
+            header.write(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' });
+            header.writeInt(13);
+            header.write("IHDR".getBytes("US-ASCII"));
+            header.writeInt(RESOLUTION);
+            header.writeInt(RESOLUTION);
+            header.write(new byte[] { 4, 0, 0, 0, 0 });
+            header.writeInt(0);
+        } finally {
+            header.close();
+        }
+        Assert.assertFalse(HeightMapImporter.isSupported(new FileHandle(gray4)));
+
+        // not a PNG at all
+        final File text = createFile(HeightMapImporter.FORMAT_PNG);
+        final FileOutputStream textOut = new FileOutputStream(text);
+        try {
+            textOut.write("no png".getBytes("US-ASCII"));
+        } finally {
+            textOut.close();
+        }
+        Assert.assertFalse(HeightMapImporter.isSupported(new FileHandle(text)));
+    }
+
+    private void assertRoundTrip(String format, float epsilon) throws IOException {
+        final float[] heights = createHeights();
+        final File file = createFile(format);
+        HeightMapExporter.write(file, heights, RESOLUTION, MIN_HEIGHT, MAX_HEIGHT);
+        assertHeights(heights, file, epsilon);
+    }
+
+    private void assertHeights(float[] heights, File file, float epsilon) {
+        final FileHandle handle = new FileHandle(file);
+        Assert.assertTrue(HeightMapImporter.isSupported(handle));
+
+        final HeightMap map = HeightMapImporter.read(handle);
+        Assert.assertEquals(RESOLUTION, map.width);
+        Assert.assertEquals(RESOLUTION, map.height);
+
+        final float[] imported = map.resample(new float[RESOLUTION * RESOLUTION], RESOLUTION, MIN_HEIGHT,
+                MAX_HEIGHT);
+        Assert.assertArrayEquals(heights, imported, (MAX_HEIGHT - MIN_HEIGHT) * epsilon);
+    }
+
+    private void assertPng(int imageType, float epsilon) throws IOException {
+        final BufferedImage image = createImage(imageType);
+        final File file = createFile(HeightMapImporter.FORMAT_PNG);
+        ImageIO.write(image, "png", file);
+
+        final FileHandle handle = new FileHandle(file);
+        Assert.assertTrue(HeightMapImporter.isSupported(handle));
+        final HeightMap map = HeightMapImporter.read(handle);
+        for (int z = 0; z < RESOLUTION; z++) {
+            for (int x = 0; x < RESOLUTION; x++) {
+                // the first channel is red or gray
+                final float expected = image.getRaster().getSample(x, z, 0)
+                        / (float) ((1 << image.getSampleModel().getSampleSize(0)) - 1);
+                Assert.assertEquals(expected, map.get(x, z), epsilon);
+            }
+        }
+    }
+
+    private File createFile(String extension) throws IOException {
+        final File file = File.createTempFile("heightmap", "." + extension);
+        files.add(file);
+        return file;
+    }
+
+    private static BufferedImage createImage(int imageType) {
+        final BufferedImage image = new BufferedImage(RESOLUTION, RESOLUTION, imageType);
+        final int max = (1 << image.getSampleModel().getSampleSize(0)) - 1;
+        for (int z = 0; z < RESOLUTION; z++) {
+            for (int x = 0; x < RESOLUTION; x++) {
+                final int value = (x * 7 + z * 13) * max / (RESOLUTION * 20);
+                for (int band = 0; band < image.getRaster().getNumBands(); band++) {
+                    image.getRaster().setSample(x, z, band, band == 3 ? max : value);
+                }
+            }
+        }
+        return image;
+    }
+
+    private static float[] createHeights() {
+        final float[] heights = new float[RESOLUTION * RESOLUTION];
+        for (int z = 0; z < RESOLUTION; z++) {
+            for (int x = 0; x < RESOLUTION; x++) {
+                final float wave = (float) (Math.sin(x * 0.3) * Math.cos(z * 0.17));
+                heights[z * RESOLUTION + x] = MIN_HEIGHT + (wave + 1) * 0.5f * (MAX_HEIGHT - MIN_HEIGHT);
+            }
+        }
+        return heights;
+    }
+
+}
@@ -16,7 +16,9 @@
 
 package com.mbrlabs.mundus.commons.test;
 
+import com.mbrlabs.mundus.commons.scene3d.GameObject;
 import com.mbrlabs.mundus.commons.scene3d.Node;
+import com.mbrlabs.mundus.commons.scene3d.SceneGraph;
 import com.mbrlabs.mundus.commons.scene3d.SimpleNode;
 
 import org.junit.Assert;
@@ -49,4 +51,35 @@ public class SceneGraphTest {
         Assert.assertNull(c0.getParent());
     }
 
+    @Test
+    public void idIndexFollowsParenting() {
+        SceneGraph sg = new SceneGraph(null);
+        GameObject a = new GameObject(sg, "a", 1);
+        GameObject b = new GameObject(sg, "b", 2);
+        GameObject c = new GameObject(sg, "c", 3);
+
+        // detached subtree is indexed, when it is attached
+        a.addChild(b);
+        Assert.assertNull(sg.findById(2));
+        sg.addGameObject(a);
+        Assert.assertTrue(sg.findById(1) == a);
+        Assert.assertTrue(sg.findById(2) == b);
+
+        b.addChild(c);
+        Assert.assertTrue(sg.findById(3) == c);
+        Assert.assertTrue(c.isChildOf(a));
+        Assert.assertFalse(a.isChildOf(c));
+
+        // removing a node removes its subtree
+        b.remove();
+        Assert.assertTrue(sg.findById(1) == a);
+        Assert.assertNull(sg.findById(2));
+        Assert.assertNull(sg.findById(3));
+
+        // reparenting
+        sg.addGameObject(b);
+        Assert.assertTrue(sg.findById(3) == c);
+        Assert.assertFalse(c.isChildOf(a));
+    }
+
 }
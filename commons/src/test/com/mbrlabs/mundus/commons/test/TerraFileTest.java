@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.test;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.mbrlabs.mundus.commons.terrain.TerraFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerraFileTest {
+
+    private static final int RESOLUTION = 64;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("terrain", ".terra");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void float32RoundTrip() throws IOException {
+        final float[] heights = createHeights(50f);
+        TerraFile.write(file, heights, 1200);
+
+        Assert.assertEquals(TerraFile.HEADER_SIZE + heights.length * 4, file.length());
+        Assert.assertArrayEquals(heights, TerraFile.read(new FileHandle(file)), 0);
+    }
+
+    @Test
+    public void uint16WithinMaxError() throws IOException {
+        final float maxError = 0.001f;
+        final float[] heights = createHeights(50f);
+        TerraFile.write(file, heights, 1200, maxError);
+
+        Assert.assertEquals(TerraFile.HEADER_SIZE + 8 + heights.length * 2, file.length());
+        Assert.assertArrayEquals(heights, TerraFile.read(new FileHandle(file)), maxError);
+    }
+
+    @Test
+    public void uint16FallsBackToFloat32() throws IOException {
+        // range of 1000 units can't be quantized with 0.001 in 16 bit
+        final float[] heights = createHeights(1000f);
+        TerraFile.write(file, heights, 1200, 0.001f);
+
+        Assert.assertEquals(TerraFile.HEADER_SIZE + heights.length * 4, file.length());
+        Assert.assertArrayEquals(heights, TerraFile.read(new FileHandle(file)), 0);
+    }
+
+    @Test
+    public void flatTerrain() throws IOException {
+        final float[] heights = new float[RESOLUTION * RESOLUTION];
+        TerraFile.write(file, heights, 1200, 0.001f);
+
+        Assert.assertArrayEquals(heights, TerraFile.read(new FileHandle(file)), 0);
+    }
+
+    @Test
+    public void readLegacyGzip() throws IOException {
+        final float[] heights = createHeights(50f);
+        DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+        try {
+            for (float h : heights) {
+                out.writeFloat(h);
+            }
+        } finally {
+            out.close();
+        }
+
+        Assert.assertArrayEquals(heights, TerraFile.read(new FileHandle(file)), 0);
+    }
+
+    @Test(expected = GdxRuntimeException.class)
+    public void truncatedFile() throws IOException {
+        TerraFile.write(file, createHeights(50f), 1200);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(file.length() / 2);
+        } finally {
+            raf.close();
+        }
+
+        TerraFile.read(new FileHandle(file));
+    }
+
+    private static float[] createHeights(float range) {
+        final float[] heights = new float[RESOLUTION * RESOLUTION];
+        for (int z = 0; z < RESOLUTION; z++) {
+            for (int x = 0; x < RESOLUTION; x++) {
+                final float wave = (float) (Math.sin(x * 0.3) * Math.cos(z * 0.17));
+                heights[z * RESOLUTION + x] = -range * 0.25f + (wave + 1) * 0.5f * range;
+            }
+        }
+        return heights;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.test;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.PerspectiveCamera;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.badlogic.gdx.utils.Pool;
+import com.mbrlabs.mundus.commons.terrain.Terrain;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Detail levels of the default terrain, which is split into patches of 129
+ * and 52 vertices per side.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TerrainLodTest {
+
+    // 2 * 179^2 grid triangles + 4 triangles per skirt segment (716 segments)
+    private static final int FULL_DETAIL_TRIANGLES = 66946;
+    // every 16th vertex: 2 * (8 + 4)^2 grid triangles + 4 * 48 skirt triangles
+    private static final int LOWEST_DETAIL_TRIANGLES = 480;
+
+    private Terrain terrain;
+
+    @BeforeClass
+    public static void setUpGl() {
+        GdxNativesLoader.load();
+        // meshes are created without a GL context
+        final GL20 gl = (GL20) Proxy.newProxyInstance(TerrainLodTest.class.getClassLoader(),
+                new Class<?>[] { GL20.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        final Class<?> type = method.getReturnType();
+                        if (type == int.class) return 1;
+                        if (type == boolean.class) return false;
+                        if (type == float.class) return 0f;
+                        return null;
+                    }
+                });
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+    }
+
+    @Before
+    public void setUp() {
+        final int res = Terrain.DEFAULT_VERTEX_RESOLUTION;
+        final float[] heights = new float[res * res];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = (float) Math.sin(i * 0.01) * 20;
+        }
+        terrain = new Terrain(Terrain.DEFAULT_SIZE, heights);
+        terrain.init();
+    }
+
+    @After
+    public void tearDown() {
+        terrain.dispose();
+    }
+
+    @Test
+    public void allPatchesReachLowestDetail() {
+        terrain.updateLod(new Vector3(Terrain.DEFAULT_SIZE / 2f, 0, Terrain.DEFAULT_SIZE / 2f));
+        Assert.assertEquals(FULL_DETAIL_TRIANGLES, terrain.getTriangleCount());
+
+        terrain.updateLod(new Vector3(Terrain.DEFAULT_SIZE / 2f, 0, -100000));
+        Assert.assertEquals(LOWEST_DETAIL_TRIANGLES, terrain.getTriangleCount());
+    }
+
+    @Test
+    public void lodCameraSelectsLevelsWhenRendering() {
+        final PerspectiveCamera cam = new PerspectiveCamera();
+        cam.position.set(Terrain.DEFAULT_SIZE / 2f, 0, -100000);
+        terrain.setLodCamera(cam);
+
+        final Array<Renderable> renderables = new Array<Renderable>();
+        final Pool<Renderable> pool = new Pool<Renderable>() {
+            @Override
+            protected Renderable newObject() {
+                return new Renderable();
+            }
+        };
+        terrain.getRenderables(renderables, pool);
+
+        Assert.assertEquals(LOWEST_DETAIL_TRIANGLES, terrain.getTriangleCount());
+        int triangles = 0;
+        for (Renderable renderable : renderables) {
+            triangles += renderable.meshPart.size / 3;
+        }
+        Assert.assertEquals(LOWEST_DETAIL_TRIANGLES, triangles);
+    }
+
+}
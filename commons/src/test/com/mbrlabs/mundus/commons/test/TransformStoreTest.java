@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.commons.test;
+
+import com.badlogic.gdx.math.Quaternion;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.mbrlabs.mundus.commons.scene3d.GameObject;
+import com.mbrlabs.mundus.commons.scene3d.SceneGraph;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * World transforms of a scene graph with transform store must match the
+ * transforms computed by SimpleNode itself.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class TransformStoreTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    @BeforeClass
+    public static void loadNatives() {
+        // SimpleNode multiplies matrices natively
+        GdxNativesLoader.load();
+    }
+
+    @Test
+    public void worldTransformsMatchSimpleNode() {
+        final SceneGraph plain = new SceneGraph(null);
+        final SceneGraph stored = new SceneGraph(null);
+        final GameObject[] a = createHierarchy(plain);
+        final GameObject[] b = createHierarchy(stored);
+        stored.enableTransformStore();
+        Assert.assertNotNull(stored.getTransformStore());
+        assertTransformsEqual(a, b);
+
+        // modify a parent
+        a[0].translate(1, -2, 3);
+        b[0].translate(1, -2, 3);
+        a[1].rotate(new Quaternion(Vector3.Y, 45));
+        b[1].rotate(new Quaternion(Vector3.Y, 45));
+        assertTransformsEqual(a, b);
+
+        // reparent a subtree
+        a[0].addChild(a[2]);
+        b[0].addChild(b[2]);
+        assertTransformsEqual(a, b);
+
+        // nodes added later are attached to the store as well
+        final GameObject plainChild = new GameObject(plain, "d", 10);
+        final GameObject storedChild = new GameObject(stored, "d", 10);
+        plainChild.setLocalPosition(0, 5, 0);
+        storedChild.setLocalPosition(0, 5, 0);
+        a[2].addChild(plainChild);
+        b[2].addChild(storedChild);
+        assertTransformsEqual(new GameObject[] { plainChild }, new GameObject[] { storedChild });
+    }
+
+    private static GameObject[] createHierarchy(SceneGraph sg) {
+        final GameObject root = new GameObject(sg, "root", 1);
+        final GameObject child = new GameObject(sg, "child", 2);
+        final GameObject grandChild = new GameObject(sg, "grandChild", 3);
+
+        root.setLocalPosition(10, 0, -4);
+        root.setLocalRotation(0, 0.3826834f, 0, 0.9238795f);
+        child.setLocalPosition(0, 2, 1);
+        child.setLocalScale(2, 2, 2);
+        grandChild.setLocalPosition(1, 1, 1);
+        grandChild.setLocalRotation(0.3826834f, 0, 0, 0.9238795f);
+
+        sg.addGameObject(root);
+        root.addChild(child);
+        child.addChild(grandChild);
+        return new GameObject[] { root, child, grandChild };
+    }
+
+    private static void assertTransformsEqual(GameObject[] expected, GameObject[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertArrayEquals(expected[i].getTransform().val, actual[i].getTransform().val, EPSILON);
+        }
+    }
+
+}
@@ -99,6 +99,8 @@ public class Editor implements ApplicationListener, ProjectChangedEvent.ProjectC
         widget3D.setRenderer(new RenderWidget.Renderer() {
             @Override
             public void render(Camera cam) {
+                Mundus.modelBatch.resetStats();
+
                 if (projectContext.currScene.skybox != null) {
                     batch.begin(projectContext.currScene.cam);
                     batch.render(projectContext.currScene.skybox.getSkyboxInstance(),
@@ -184,6 +186,7 @@ public class Editor implements ApplicationListener, ProjectChangedEvent.ProjectC
         ui.act();
         camController.update();
         toolManager.act();
+        Mundus.flushEvents();
         ui.draw();
     }
 
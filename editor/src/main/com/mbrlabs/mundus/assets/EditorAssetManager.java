@@ -29,6 +29,7 @@ import com.mbrlabs.mundus.commons.assets.PixmapTextureAsset;
 import com.mbrlabs.mundus.commons.assets.TerrainAsset;
 import com.mbrlabs.mundus.commons.assets.TextureAsset;
 import com.mbrlabs.mundus.commons.terrain.SplatMap;
+import com.mbrlabs.mundus.commons.terrain.TerraFile;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.events.AssetImportEvent;
 import com.mbrlabs.mundus.utils.Log;
@@ -36,14 +37,10 @@ import com.mbrlabs.mundus.utils.Log;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 
-import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Date;
 import java.util.UUID;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * @author Marcus Brummer
@@ -179,13 +176,7 @@ public class EditorAssetManager extends AssetManager {
         }
 
         // write terra file
-        DataOutputStream outputStream = new DataOutputStream(
-                new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(terraFile))));
-        for (float f : data) {
-            outputStream.writeFloat(f);
-        }
-        outputStream.flush();
-        outputStream.close();
+        TerraFile.write(terraFile, data, size);
 
         // load & apply standard chessboard texture
         TerrainAsset asset = new TerrainAsset(meta, new FileHandle(terraFile));
@@ -208,13 +199,9 @@ public class EditorAssetManager extends AssetManager {
         for (TerrainAsset terrain : getTerrainAssets()) {
 
             // save .terra file
-            DataOutputStream outputStream = new DataOutputStream(
-                    new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(terrain.getFile().file()))));
-            for (float f : terrain.getData()) {
-                outputStream.writeFloat(f);
-            }
-            outputStream.flush();
-            outputStream.close();
+            final MetaFile meta = terrain.getMeta();
+            TerraFile.write(terrain.getFile().file(), terrain.getData(), meta.getTerrainSize(),
+                    meta.getTerrainHeightError());
 
             // save splatmap
             PixmapTextureAsset splatmap = terrain.getSplatmap();
@@ -20,13 +20,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.kotcrab.vis.ui.VisUI;
 import com.kotcrab.vis.ui.widget.file.FileChooser;
 import com.mbrlabs.mundus.Main;
 import com.mbrlabs.mundus.assets.ModelImporter;
+import com.mbrlabs.mundus.commons.g3d.RenderQueue;
 import com.mbrlabs.mundus.core.kryo.KryoManager;
 import com.mbrlabs.mundus.core.project.ProjectManager;
 import com.mbrlabs.mundus.core.registry.Registry;
@@ -47,6 +47,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Core class.
@@ -73,7 +74,7 @@ public class Mundus {
     public static EventBus eventBus;
 
     public static BitmapFont fa;
-    public static ModelBatch modelBatch;
+    public static RenderQueue modelBatch;
 
     /**
      * Loads & initializes everything.
@@ -92,7 +93,7 @@ public class Mundus {
         initFontAwesome();
 
         shapeRenderer = new ShapeRenderer();
-        modelBatch = new ModelBatch();
+        modelBatch = new RenderQueue();
         shaders = new Shaders();
         input = new InputManager();
         goPicker = new GameObjectPicker();
@@ -101,7 +102,8 @@ public class Mundus {
         kryoManager = new KryoManager();
         registry = kryoManager.loadRegistry();
         freeCamController = new FreeCamController();
-        commandHistory = new CommandHistory(CommandHistory.DEFAULT_LIMIT);
+        commandHistory = new CommandHistory(CommandHistory.DEFAULT_LIMIT, CommandHistory.DEFAULT_MEMORY_BUDGET,
+                new File(Registry.TEMP_DIR, "history-" + UUID.randomUUID()));
 
         modelImporter = new ModelImporter(registry);
         projectManager = new ProjectManager(kryoManager, registry, shaders);
@@ -155,6 +157,14 @@ public class Mundus {
         eventBus.post(event);
     }
 
+    /**
+     * Delivers the queued events of deferred subscribers. Called once per
+     * frame.
+     */
+    public static void flushEvents() {
+        eventBus.flush();
+    }
+
     public static void registerEventListener(Object listener) {
         eventBus.register(listener);
     }
@@ -113,6 +113,7 @@ public class DescriptorConverter {
         Settings settings = new Settings();
         settings.setFbxConvBinary(descriptor.getFbxConvBinary());
         settings.setKeyboardLayout(descriptor.getKeyboardLayout());
+        settings.setTransformStore(descriptor.isTransformStore());
 
         if (settings.getKeyboardLayout() == null) {
             if (Locale.getDefault().equals(Locale.GERMAN) || Locale.getDefault().equals(Locale.GERMANY)) {
@@ -129,6 +130,7 @@ public class DescriptorConverter {
         SettingsDescriptor descriptor = new SettingsDescriptor();
         descriptor.setKeyboardLayout(settings.getKeyboardLayout());
         descriptor.setFbxConvBinary(settings.getFbxConvBinary());
+        descriptor.setTransformStore(settings.isTransformStore());
 
         return descriptor;
     }
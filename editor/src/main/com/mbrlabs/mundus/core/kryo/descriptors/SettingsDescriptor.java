@@ -28,6 +28,8 @@ public class SettingsDescriptor {
     private String fbxConvBinary = "";
     @Tag(1)
     private KeyboardLayout keyboardLayout;
+    @Tag(2)
+    private boolean transformStore;
 
     public String getFbxConvBinary() {
         return fbxConvBinary;
@@ -45,4 +47,12 @@ public class SettingsDescriptor {
         this.keyboardLayout = keyboardLayout;
     }
 
+    public boolean isTransformStore() {
+        return transformStore;
+    }
+
+    public void setTransformStore(boolean transformStore) {
+        this.transformStore = transformStore;
+    }
+
 }
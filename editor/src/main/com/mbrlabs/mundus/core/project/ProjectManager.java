@@ -135,6 +135,9 @@ public class ProjectManager implements Disposable {
         scene.setId(newProjectContext.obtainID());
         kryoManager.saveScene(newProjectContext, scene);
         scene.sceneGraph.batch = Mundus.modelBatch;
+        if (registry.getSettings().isTransformStore()) {
+            scene.sceneGraph.enableTransformStore();
+        }
 
         // save .pro file
         newProjectContext.scenes.add(scene.getName());
@@ -334,6 +337,9 @@ public class ProjectManager implements Disposable {
         for (GameObject go : sceneGraph.getGameObjects()) {
             initGameObject(context, go);
         }
+        if (registry.getSettings().isTransformStore()) {
+            sceneGraph.enableTransformStore();
+        }
 
         // create TerrainGroup for active scene
         Array<Component> terrainComponents = new Array<>();
@@ -26,6 +26,8 @@ public class Settings {
 
     private String fbxConvBinary = "";
     private KeyboardLayout keyboardLayout;
+    // batch transform updates of large scenes, see SceneGraph.enableTransformStore()
+    private boolean transformStore;
 
     public String getFbxConvBinary() {
         return fbxConvBinary;
@@ -43,4 +45,12 @@ public class Settings {
         this.keyboardLayout = keyboardLayout;
     }
 
+    public boolean isTransformStore() {
+        return transformStore;
+    }
+
+    public void setTransformStore(boolean transformStore) {
+        this.transformStore = transformStore;
+    }
+
 }
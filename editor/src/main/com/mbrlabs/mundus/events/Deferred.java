@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a subscriber method for deferred delivery.
+ *
+ * Events for deferred subscribers are queued & delivered, when the event bus
+ * is flushed (once per frame). Events of the same type are coalesced, so that
+ * the subscriber only receives the latest one. With perTarget, events
+ * implementing {@link TargetedEvent} are coalesced per target instead.
+ *
+ * Must be put on the implementing method of the subscriber class.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Deferred {
+
+    boolean perTarget() default false;
+
+}
@@ -18,10 +18,15 @@ package com.mbrlabs.mundus.events;
 
 import com.mbrlabs.mundus.utils.ReflectionUtils;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Simple Event bus via reflection.
@@ -29,55 +34,195 @@ import java.util.List;
  * Subscribers need to provide a public method, annotated with @Subscribe and 1
  * parameter as event type.
  *
+ * The subscriber methods are looked up once in register() & stored per event
+ * type as method handles, bound to the subscriber. Posting an event is a map
+ * lookup followed by direct calls of the handlers.
+ *
+ * Subscriber methods annotated with {@link Deferred} don't receive events
+ * immediately. Their events are queued, coalesced & delivered in flush().
+ *
  * Inspired by the Otto Event Bus for Android.
  *
  * @author Marcus Brummer
  * @version 12-12-2015
  */
-// TODO improve/test performance might not be that great
 public class EventBus {
 
     private class EventBusExcetion extends RuntimeException {
         private EventBusExcetion(String s) {
             super(s);
         }
+
+        private EventBusExcetion(String s, Throwable cause) {
+            super(s, cause);
+        }
+    }
+
+    /**
+     * Subscriber method bound to its subscriber.
+     */
+    private static class Handler {
+        private final Object subscriber;
+        private final MethodHandle method;
+        private final Deferred deferred;
+        private boolean registered = true;
+
+        private Handler(Object subscriber, MethodHandle method, Deferred deferred) {
+            this.subscriber = subscriber;
+            this.method = method;
+            this.deferred = deferred;
+        }
     }
 
-    private List<Object> subscribers;
+    /**
+     * Coalescing key of a queued event: the deferred handler & the event
+     * target (or event type).
+     */
+    private static class QueueKey {
+        private final Handler handler;
+        private final Object target;
+
+        private QueueKey(Handler handler, Object target) {
+            this.handler = handler;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof QueueKey)) return false;
+            final QueueKey other = (QueueKey) o;
+            return handler == other.handler && target == other.target;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(handler) + System.identityHashCode(target);
+        }
+    }
+
+    private static final Handler[] NO_HANDLERS = new Handler[0];
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    // event type -> handlers; arrays are replaced, never modified, so that
+    // subscribers can (un)register while an event is posted
+    private Map<Class<?>, Handler[]> handlers;
+
+    // subscriber class -> subscriber methods
+    private Map<Class<?>, List<Method>> subscriberMethods;
+
+    // events for deferred handlers, in order of their first occurrence
+    private Map<QueueKey, Object> queue;
 
     public EventBus() {
-        subscribers = new LinkedList<>();
+        handlers = new HashMap<>();
+        subscriberMethods = new HashMap<>();
+        queue = new LinkedHashMap<>();
     }
 
     public void register(Object subscriber) {
-        subscribers.add(subscriber);
+        for (Method method : getSubscriberMethods(subscriber.getClass())) {
+            final Class<?> eventType = method.getParameterTypes()[0];
+            final Handler handler;
+            try {
+                final MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(subscriber)
+                        .asType(HANDLER_TYPE);
+                handler = new Handler(subscriber, handle, method.getAnnotation(Deferred.class));
+            } catch (IllegalAccessException e) {
+                throw new EventBusExcetion("Can't access method " + method.getName() + " in "
+                        + subscriber.getClass().getName(), e);
+            }
+
+            final Handler[] old = getHandlers(eventType);
+            final Handler[] updated = new Handler[old.length + 1];
+            System.arraycopy(old, 0, updated, 0, old.length);
+            updated[old.length] = handler;
+            handlers.put(eventType, updated);
+        }
     }
 
     public void unregister(Object subscriber) {
-        subscribers.remove(subscriber);
+        for (Method method : getSubscriberMethods(subscriber.getClass())) {
+            final Class<?> eventType = method.getParameterTypes()[0];
+            final Handler[] old = getHandlers(eventType);
+            for (int i = 0; i < old.length; i++) {
+                if (old[i].subscriber == subscriber) {
+                    old[i].registered = false;
+                    final Handler[] updated = new Handler[old.length - 1];
+                    System.arraycopy(old, 0, updated, 0, i);
+                    System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+                    if (updated.length == 0) {
+                        handlers.remove(eventType);
+                    } else {
+                        handlers.put(eventType, updated);
+                    }
+                    break;
+                }
+            }
+        }
     }
 
     public void post(Object event) {
+        for (Handler handler : getHandlers(event.getClass())) {
+            if (handler.deferred == null) {
+                invoke(handler, event);
+            } else {
+                Object target = event.getClass();
+                if (handler.deferred.perTarget() && event instanceof TargetedEvent) {
+                    target = ((TargetedEvent) event).getTarget();
+                }
+                queue.put(new QueueKey(handler, target), event);
+            }
+        }
+    }
+
+    /**
+     * Delivers all queued events to their deferred subscribers. Events posted
+     * during the flush are delivered by the next flush.
+     */
+    public void flush() {
+        if (queue.isEmpty()) return;
+
+        final Map<QueueKey, Object> events = queue;
+        queue = new LinkedHashMap<>();
+        for (Map.Entry<QueueKey, Object> entry : events.entrySet()) {
+            final Handler handler = entry.getKey().handler;
+            if (handler.registered) {
+                invoke(handler, entry.getValue());
+            }
+        }
+    }
+
+    private void invoke(Handler handler, Object event) {
         try {
-            final Class eventType = event.getClass();
-            for (Object subscriber : subscribers.toArray()) {
-                for (Method method : subscriber.getClass().getDeclaredMethods()) {
-                    if (isSubscriber(method)) {
-                        if (method.getParameterTypes().length != 1) {
-                            throw new EventBusExcetion("Size of parameter list of method " + method.getName() + " in "
-                                    + subscriber.getClass().getName() + " must be 1");
-                        }
-
-                        if (method.getParameterTypes()[0].equals(eventType)) {
-                            // System.out.println(subscriber.getClass().getName());
-                            method.invoke(subscriber, eventType.cast(event));
-                        }
-                    }
+            handler.method.invokeExact(event);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    private Handler[] getHandlers(Class<?> eventType) {
+        final Handler[] list = handlers.get(eventType);
+        return list == null ? NO_HANDLERS : list;
+    }
+
+    private List<Method> getSubscriberMethods(Class<?> subscriberClass) {
+        List<Method> methods = subscriberMethods.get(subscriberClass);
+        if (methods != null) return methods;
+
+        methods = new ArrayList<>();
+        for (Method method : subscriberClass.getDeclaredMethods()) {
+            if (isSubscriber(method)) {
+                if (method.getParameterTypes().length != 1) {
+                    throw new EventBusExcetion("Size of parameter list of method " + method.getName() + " in "
+                            + subscriberClass.getName() + " must be 1");
                 }
+                method.setAccessible(true);
+                methods.add(method);
             }
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            e.printStackTrace();
         }
+        subscriberMethods.put(subscriberClass, methods);
+
+        return methods;
     }
 
     private boolean isSubscriber(Method method) {
@@ -87,8 +232,8 @@ public class EventBus {
 
         // check if implemented interfaces of this class have a @Subscribe
         // annotation
-        Class[] interfaces = method.getDeclaringClass().getInterfaces();
-        for (Class i : interfaces) {
+        Class<?>[] interfaces = method.getDeclaringClass().getInterfaces();
+        for (Class<?> i : interfaces) {
             try {
                 Method interfaceMethod = i.getMethod(method.getName(), method.getParameterTypes());
                 if (interfaceMethod != null) {
@@ -22,7 +22,7 @@ import com.mbrlabs.mundus.commons.scene3d.GameObject;
  * @author Marcus Brummer
  * @version 23-01-2016
  */
-public class GameObjectModifiedEvent {
+public class GameObjectModifiedEvent implements TargetedEvent {
 
     private GameObject gameObject;
 
@@ -41,6 +41,11 @@ public class GameObjectModifiedEvent {
         this.gameObject = gameObject;
     }
 
+    @Override
+    public Object getTarget() {
+        return gameObject;
+    }
+
     public static interface GameObjectModifiedListener {
         @Subscribe
         public void onGameObjectModified(GameObjectModifiedEvent gameObjectModifiedEvent);
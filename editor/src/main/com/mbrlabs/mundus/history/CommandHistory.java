@@ -17,9 +17,26 @@
 package com.mbrlabs.mundus.history;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 
 /**
  * Add commands to undo/redo a previously called process
+ *
+ * The history keeps track of the memory retained by its commands (see
+ * {@link SpillableCommand}). If the memory budget is exceeded, the commands
+ * furthest away from the current position are spilled to the spill directory
+ * & restored on demand. Without spill directory (or if spilling fails) the
+ * oldest commands are dropped instead.
  * 
  * @author Marcus Brummer
  * @version 07-02-2016
@@ -27,21 +44,49 @@ import com.badlogic.gdx.utils.Array;
 public class CommandHistory {
 
     public static final int DEFAULT_LIMIT = 50;
+    public static final long DEFAULT_MEMORY_BUDGET = 128L * 1024L * 1024L;
+
+    /** Assumed memory size of commands, that don't report their size */
+    public static final long SMALL_COMMAND_SIZE = 64;
 
     private int limit;
     private int pointer;
     private Array<Command> commands;
 
+    private long memoryBudget;
+    private long memorySize;
+    private File spillDirectory;
+    private int spillCounter;
+    private ObjectMap<Command, File> spilled = new ObjectMap<>();
+
     public CommandHistory(int limit) {
+        this(limit, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param limit
+     *            max number of commands
+     * @param memoryBudget
+     *            max number of bytes retained by the commands in memory
+     * @param spillDirectory
+     *            directory for spilled commands; null to drop the oldest
+     *            commands instead
+     */
+    public CommandHistory(int limit, long memoryBudget, File spillDirectory) {
         this.limit = limit;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
         commands = new Array<>(limit);
         pointer = -1;
     }
 
     public int add(Command command) {
+        memorySize += getMemorySize(command);
+
         if (size() == 0) {
             commands.add(command);
             pointer++;
+            enforceBudget();
             return pointer;
         }
 
@@ -59,26 +104,40 @@ public class CommandHistory {
             }
         }
 
+        enforceBudget();
         return pointer;
     }
 
     private void removeCommand(int index) {
-        commands.get(index).dispose();
+        release(commands.get(index));
         commands.removeIndex(index);
     }
 
     private void removeCommands(int from, int to) {
         for (int i = from; i <= to; i++) {
-            commands.get(i).dispose();
+            release(commands.get(i));
         }
 
         commands.removeRange(from, to);
     }
 
+    private void release(Command command) {
+        final File file = spilled.remove(command);
+        if (file != null) {
+            file.delete();
+        } else {
+            memorySize -= getMemorySize(command);
+        }
+        command.dispose();
+    }
+
     public int goBack() {
         if (pointer >= 0) {
-            commands.get(pointer).undo();
+            final Command command = commands.get(pointer);
+            restore(command);
+            command.undo();
             pointer--;
+            enforceBudget();
         }
 
         return pointer;
@@ -87,22 +146,130 @@ public class CommandHistory {
     public int goForward() {
         if (pointer < commands.size - 1) {
             pointer++;
-            commands.get(pointer).execute();
+            final Command command = commands.get(pointer);
+            restore(command);
+            command.execute();
+            enforceBudget();
         }
 
         return pointer;
     }
 
+    /**
+     * Spills (or drops) commands until the memory budget is met. The commands
+     * next to the current position (the next undo & redo) are never touched.
+     */
+    private void enforceBudget() {
+        if (memorySize <= memoryBudget) return;
+
+        if (spillDirectory != null) {
+            // furthest away from the current position first
+            int back = 0;
+            int front = commands.size - 1;
+            while (memorySize > memoryBudget && back <= front) {
+                final int index = pointer - back > front - (pointer + 1) ? back++ : front--;
+                if (index == pointer || index == pointer + 1) continue;
+
+                final Command command = commands.get(index);
+                if (command instanceof SpillableCommand && !spilled.containsKey(command)) {
+                    spill((SpillableCommand) command);
+                }
+            }
+        }
+
+        // drop the oldest commands, but only if that can meet the budget.
+        // Spilled commands hold no memory and the current command & the
+        // redo commands are never dropped.
+        long droppable = 0;
+        for (int i = 0; i < pointer; i++) {
+            if (!spilled.containsKey(commands.get(i))) {
+                droppable += getMemorySize(commands.get(i));
+            }
+        }
+        if (memorySize - droppable > memoryBudget) return;
+
+        while (memorySize > memoryBudget && pointer > 0) {
+            removeCommand(0);
+            pointer--;
+        }
+    }
+
+    private void spill(SpillableCommand command) {
+        if (!spillDirectory.exists() && !spillDirectory.mkdirs()) return;
+
+        final File file = new File(spillDirectory, "command_" + spillCounter++ + ".bin");
+        final long size = command.getMemorySize();
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            command.spill(out);
+            out.flush();
+            spilled.put(command, file);
+            memorySize -= size;
+        } catch (IOException e) {
+            e.printStackTrace();
+            file.delete();
+        } finally {
+            StreamUtils.closeQuietly(out);
+        }
+    }
+
+    private void restore(Command command) {
+        final File file = spilled.remove(command);
+        if (file == null) return;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            ((SpillableCommand) command).restore(in);
+            memorySize += getMemorySize(command);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to restore spilled command: " + file, e);
+        } finally {
+            StreamUtils.closeQuietly(in);
+            file.delete();
+        }
+    }
+
+    private static long getMemorySize(Command command) {
+        if (command instanceof SpillableCommand) {
+            return ((SpillableCommand) command).getMemorySize();
+        }
+        return SMALL_COMMAND_SIZE;
+    }
+
+    /**
+     * @return number of bytes retained by the commands in memory
+     */
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * @return number of commands, that are currently spilled to disk
+     */
+    public int getSpilledCount() {
+        return spilled.size;
+    }
+
     public int getPointer() {
         return pointer;
     }
 
+    /**
+     * Removes all commands & deletes the spill directory.
+     */
     public void clear() {
         for (Command c : commands) {
-            c.dispose();
+            release(c);
         }
         commands.clear();
+        memorySize = 0;
         pointer = -1;
+
+        if (spillDirectory != null && spillDirectory.exists()) {
+            spillDirectory.delete();
+        }
     }
 
     public int size() {
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Command, that retains a considerable amount of memory (e.g. terrain
+ * snapshots).
+ *
+ * The command history counts the retained bytes against its memory budget.
+ * Commands far away from the current history position can be spilled to disk
+ * & are restored, before they are executed or undone again.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public interface SpillableCommand extends Command {
+
+    /**
+     * @return approximate number of bytes retained by this command
+     */
+    public long getMemorySize();
+
+    /**
+     * Writes the retained data to the stream & releases it.
+     */
+    public void spill(DataOutput out) throws IOException;
+
+    /**
+     * Reads the data previously written by spill().
+     */
+    public void restore(DataInput in) throws IOException;
+
+}
@@ -28,8 +28,6 @@ import com.mbrlabs.mundus.history.Command;
  */
 public class RotateCommand implements Command {
 
-    private static GameObjectModifiedEvent modEvent = new GameObjectModifiedEvent();
-
     private Quaternion before;
     private Quaternion after;
     private GameObject go;
@@ -55,15 +53,13 @@ public class RotateCommand implements Command {
     @Override
     public void execute() {
         go.setLocalRotation(after.x, after.y, after.z, after.w);
-        modEvent.setGameObject(go);
-        Mundus.postEvent(modEvent);
+        Mundus.postEvent(new GameObjectModifiedEvent(go));
     }
 
     @Override
     public void undo() {
         go.setLocalRotation(before.x, before.y, before.z, before.w);
-        modEvent.setGameObject(go);
-        Mundus.postEvent(modEvent);
+        Mundus.postEvent(new GameObjectModifiedEvent(go));
     }
 
     @Override
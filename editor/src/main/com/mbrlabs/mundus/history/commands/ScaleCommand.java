@@ -28,8 +28,6 @@ import com.mbrlabs.mundus.history.Command;
  */
 public class ScaleCommand implements Command {
 
-    private static GameObjectModifiedEvent modEvent = new GameObjectModifiedEvent();
-
     private Vector3 before;
     private Vector3 after;
     private GameObject go;
@@ -55,15 +53,13 @@ public class ScaleCommand implements Command {
     @Override
     public void execute() {
         go.setLocalScale(after.x, after.y, after.z);
-        modEvent.setGameObject(go);
-        Mundus.postEvent(modEvent);
+        Mundus.postEvent(new GameObjectModifiedEvent(go));
     }
 
     @Override
     public void undo() {
         go.setLocalScale(before.x, before.y, before.z);
-        modEvent.setGameObject(go);
-        Mundus.postEvent(modEvent);
+        Mundus.postEvent(new GameObjectModifiedEvent(go));
     }
 
     @Override
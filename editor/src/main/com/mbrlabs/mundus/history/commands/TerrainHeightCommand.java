@@ -13,53 +13,209 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.mbrlabs.mundus.history.commands;
 
+import com.badlogic.gdx.utils.IntMap;
 import com.mbrlabs.mundus.commons.terrain.Terrain;
-import com.mbrlabs.mundus.history.Command;
+import com.mbrlabs.mundus.history.SpillableCommand;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
+ * Undo/redo of terrain height modifications.
+ *
+ * Only the modified parts of the height grid are stored, in tiles of
+ * TILE_SIZE x TILE_SIZE vertices. Tiles are copied on first touch with
+ * captureBefore(), before they are modified. captureAfter() stores the new
+ * state of these tiles & drops the ones, that did not change.
+ *
  * @author Marcus Brummer
  * @version 07-02-2016
  */
-public class TerrainHeightCommand implements Command {
+public class TerrainHeightCommand implements SpillableCommand {
 
-    private float[] heightDataBefore;
-    private float[] heightDataAfter;
+    /** Number of vertices along one side of a tile */
+    public static final int TILE_SIZE = 32;
+
+    // tile index -> heights of the tile, row by row
+    private IntMap<float[]> tilesBefore = new IntMap<>();
+    private IntMap<float[]> tilesAfter = new IntMap<>();
+    private final int tilesPerRow;
 
     private Terrain terrain;
 
     public TerrainHeightCommand(Terrain terrain) {
         this.terrain = terrain;
+        this.tilesPerRow = (terrain.vertexResolution + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Stores the current heights of all tiles, that overlap the given grid
+     * rectangle & have not been stored yet. Must be called before the
+     * rectangle is modified.
+     */
+    public void captureBefore(int minX, int minZ, int maxX, int maxZ) {
+        final int last = terrain.vertexResolution - 1;
+        final int fromX = Math.max(0, minX) / TILE_SIZE;
+        final int fromZ = Math.max(0, minZ) / TILE_SIZE;
+        final int toX = Math.min(last, maxX) / TILE_SIZE;
+        final int toZ = Math.min(last, maxZ) / TILE_SIZE;
+        for (int tz = fromZ; tz <= toZ; tz++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                final int tile = tz * tilesPerRow + tx;
+                if (!tilesBefore.containsKey(tile)) {
+                    tilesBefore.put(tile, copyTile(tile));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the current heights of the whole terrain.
+     */
+    public void captureBefore() {
+        captureBefore(0, 0, terrain.vertexResolution - 1, terrain.vertexResolution - 1);
+    }
+
+    /**
+     * Stores the modified heights of all captured tiles. Must be called after
+     * the modification.
+     */
+    public void captureAfter() {
+        final Iterator<IntMap.Entry<float[]>> it = tilesBefore.entries().iterator();
+        while (it.hasNext()) {
+            final IntMap.Entry<float[]> entry = it.next();
+            final float[] heights = copyTile(entry.key);
+            if (Arrays.equals(heights, entry.value)) {
+                it.remove();
+            } else {
+                tilesAfter.put(entry.key, heights);
+            }
+        }
+    }
+
+    /**
+     * @return true if the terrain has been modified
+     */
+    public boolean isModified() {
+        return tilesAfter.size > 0;
     }
 
-    public void setHeightDataBefore(float[] data) {
-        heightDataBefore = new float[data.length];
-        System.arraycopy(data, 0, heightDataBefore, 0, data.length);
+    private float[] copyTile(int tile) {
+        final int res = terrain.vertexResolution;
+        final int x0 = (tile % tilesPerRow) * TILE_SIZE;
+        final int z0 = (tile / tilesPerRow) * TILE_SIZE;
+        final int width = Math.min(TILE_SIZE, res - x0);
+        final int depth = Math.min(TILE_SIZE, res - z0);
+
+        final float[] heights = new float[width * depth];
+        for (int z = 0; z < depth; z++) {
+            System.arraycopy(terrain.heightData, (z0 + z) * res + x0, heights, z * width, width);
+        }
+        return heights;
     }
 
-    public void setHeightDataAfter(float[] data) {
-        heightDataAfter = new float[data.length];
-        System.arraycopy(data, 0, heightDataAfter, 0, data.length);
+    /**
+     * Writes the tiles back into the terrain & updates the mesh of the
+     * affected region.
+     */
+    private void applyTiles(IntMap<float[]> tiles) {
+        final int res = terrain.vertexResolution;
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = -1;
+        int maxZ = -1;
+
+        for (IntMap.Entry<float[]> entry : tiles.entries()) {
+            final int x0 = (entry.key % tilesPerRow) * TILE_SIZE;
+            final int z0 = (entry.key / tilesPerRow) * TILE_SIZE;
+            final int width = Math.min(TILE_SIZE, res - x0);
+            final int depth = Math.min(TILE_SIZE, res - z0);
+            for (int z = 0; z < depth; z++) {
+                System.arraycopy(entry.value, z * width, terrain.heightData, (z0 + z) * res + x0, width);
+            }
+
+            minX = Math.min(minX, x0);
+            minZ = Math.min(minZ, z0);
+            maxX = Math.max(maxX, x0 + width - 1);
+            maxZ = Math.max(maxZ, z0 + depth - 1);
+        }
+
+        if (maxX >= 0) {
+            terrain.update(minX, minZ, maxX, maxZ);
+        }
     }
 
     @Override
     public void execute() {
-        terrain.heightData = heightDataAfter;
-        terrain.update();
+        applyTiles(tilesAfter);
     }
 
     @Override
     public void undo() {
-        terrain.heightData = heightDataBefore;
-        terrain.update();
+        applyTiles(tilesBefore);
+    }
+
+    @Override
+    public long getMemorySize() {
+        return getMemorySize(tilesBefore) + getMemorySize(tilesAfter);
+    }
+
+    private static long getMemorySize(IntMap<float[]> tiles) {
+        long size = 0;
+        for (IntMap.Entry<float[]> entry : tiles.entries()) {
+            size += entry.value.length * 4L;
+        }
+        return size;
+    }
+
+    @Override
+    public void spill(DataOutput out) throws IOException {
+        writeTiles(out, tilesBefore);
+        writeTiles(out, tilesAfter);
+        tilesBefore = new IntMap<>();
+        tilesAfter = new IntMap<>();
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException {
+        tilesBefore = readTiles(in);
+        tilesAfter = readTiles(in);
+    }
+
+    private static void writeTiles(DataOutput out, IntMap<float[]> tiles) throws IOException {
+        out.writeInt(tiles.size);
+        for (IntMap.Entry<float[]> entry : tiles.entries()) {
+            out.writeInt(entry.key);
+            out.writeInt(entry.value.length);
+            for (float value : entry.value) {
+                out.writeFloat(value);
+            }
+        }
+    }
+
+    private static IntMap<float[]> readTiles(DataInput in) throws IOException {
+        final int count = in.readInt();
+        final IntMap<float[]> tiles = new IntMap<>(Math.max(1, count));
+        for (int i = 0; i < count; i++) {
+            final int tile = in.readInt();
+            final float[] values = new float[in.readInt()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = in.readFloat();
+            }
+            tiles.put(tile, values);
+        }
+        return tiles;
     }
 
     @Override
     public void dispose() {
-        heightDataAfter = null;
-        heightDataBefore = null;
+        tilesBefore = null;
+        tilesAfter = null;
         terrain = null;
     }
 
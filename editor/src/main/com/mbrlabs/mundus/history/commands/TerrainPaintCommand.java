@@ -13,63 +13,204 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package com.mbrlabs.mundus.history.commands;
 
-import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.IntMap;
 import com.mbrlabs.mundus.commons.terrain.SplatMap;
 import com.mbrlabs.mundus.commons.terrain.Terrain;
-import com.mbrlabs.mundus.history.Command;
+import com.mbrlabs.mundus.history.SpillableCommand;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
 
 /**
+ * Undo/redo of splatmap modifications.
+ *
+ * Only the modified parts of the splatmap are stored, in tiles of TILE_SIZE x
+ * TILE_SIZE pixels. Tiles are copied on first touch with captureBefore(),
+ * before they are modified. captureAfter() stores the new state of these
+ * tiles & drops the ones, that did not change.
+ *
  * @author Marcus Brummer
  * @version 07-02-2016
  */
-public class TerrainPaintCommand implements Command {
+public class TerrainPaintCommand implements SpillableCommand {
 
-    private Terrain terrain;
+    /** Number of pixels along one side of a tile */
+    public static final int TILE_SIZE = 32;
+
+    // RGBA8888
+    private static final int BYTES_PER_PIXEL = 4;
 
-    private Pixmap after;
-    private Pixmap before;
+    // tile index -> pixels of the tile, row by row
+    private IntMap<byte[]> tilesBefore = new IntMap<>();
+    private IntMap<byte[]> tilesAfter = new IntMap<>();
+    private int tilesPerRow;
+
+    private Terrain terrain;
 
     public TerrainPaintCommand(Terrain terrain) {
         this.terrain = terrain;
+        final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
+        if (sm != null) {
+            tilesPerRow = (sm.getWidth() + TILE_SIZE - 1) / TILE_SIZE;
+        }
+    }
+
+    /**
+     * Stores the current pixels of all tiles, that overlap the given splatmap
+     * rectangle & have not been stored yet. Must be called before the
+     * rectangle is modified.
+     */
+    public void captureBefore(int minX, int minY, int maxX, int maxY) {
+        final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
+        if (sm == null) return;
+
+        final int fromX = Math.max(0, minX) / TILE_SIZE;
+        final int fromY = Math.max(0, minY) / TILE_SIZE;
+        final int toX = Math.min(sm.getWidth() - 1, maxX) / TILE_SIZE;
+        final int toY = Math.min(sm.getHeight() - 1, maxY) / TILE_SIZE;
+        for (int ty = fromY; ty <= toY; ty++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                final int tile = ty * tilesPerRow + tx;
+                if (!tilesBefore.containsKey(tile)) {
+                    tilesBefore.put(tile, copyTile(sm, tile));
+                }
+            }
+        }
     }
 
-    public void setAfter(Pixmap data) {
-        after = new Pixmap(data.getWidth(), data.getHeight(), data.getFormat());
-        after.drawPixmap(data, 0, 0);
+    /**
+     * Stores the modified pixels of all captured tiles. Must be called after
+     * the modification.
+     */
+    public void captureAfter() {
+        final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
+        if (sm == null) return;
+
+        final Iterator<IntMap.Entry<byte[]>> it = tilesBefore.entries().iterator();
+        while (it.hasNext()) {
+            final IntMap.Entry<byte[]> entry = it.next();
+            final byte[] pixels = copyTile(sm, entry.key);
+            if (Arrays.equals(pixels, entry.value)) {
+                it.remove();
+            } else {
+                tilesAfter.put(entry.key, pixels);
+            }
+        }
+    }
+
+    /**
+     * @return true if the splatmap has been modified
+     */
+    public boolean isModified() {
+        return tilesAfter.size > 0;
+    }
+
+    private byte[] copyTile(SplatMap sm, int tile) {
+        final int x0 = (tile % tilesPerRow) * TILE_SIZE;
+        final int y0 = (tile / tilesPerRow) * TILE_SIZE;
+        final int width = Math.min(TILE_SIZE, sm.getWidth() - x0);
+        final int height = Math.min(TILE_SIZE, sm.getHeight() - y0);
+        final int rowSize = width * BYTES_PER_PIXEL;
+
+        final ByteBuffer src = sm.getPixmap().getPixels().duplicate();
+        final byte[] pixels = new byte[rowSize * height];
+        for (int y = 0; y < height; y++) {
+            src.position(((y0 + y) * sm.getWidth() + x0) * BYTES_PER_PIXEL);
+            src.get(pixels, y * rowSize, rowSize);
+        }
+        return pixels;
     }
 
-    public void setBefore(Pixmap data) {
-        before = new Pixmap(data.getWidth(), data.getHeight(), data.getFormat());
-        before.drawPixmap(data, 0, 0);
+    /**
+     * Writes the tiles back into the splatmap & marks them for upload.
+     */
+    private void applyTiles(IntMap<byte[]> tiles) {
+        final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
+        if (sm == null) return;
+
+        final ByteBuffer dst = sm.getPixmap().getPixels().duplicate();
+        for (IntMap.Entry<byte[]> entry : tiles.entries()) {
+            final int x0 = (entry.key % tilesPerRow) * TILE_SIZE;
+            final int y0 = (entry.key / tilesPerRow) * TILE_SIZE;
+            final int width = Math.min(TILE_SIZE, sm.getWidth() - x0);
+            final int height = Math.min(TILE_SIZE, sm.getHeight() - y0);
+            final int rowSize = width * BYTES_PER_PIXEL;
+            for (int y = 0; y < height; y++) {
+                dst.position(((y0 + y) * sm.getWidth() + x0) * BYTES_PER_PIXEL);
+                dst.put(entry.value, y * rowSize, rowSize);
+            }
+            sm.markDirty(x0, y0, width, height);
+        }
     }
 
     @Override
     public void execute() {
-        SplatMap sm = terrain.getTerrainTexture().getSplatmap();
-        if (sm != null) {
-            sm.getPixmap().drawPixmap(after, 0, 0);
-            sm.updateTexture();
-        }
+        applyTiles(tilesAfter);
     }
 
     @Override
     public void undo() {
-        SplatMap sm = terrain.getTerrainTexture().getSplatmap();
-        if (sm != null) {
-            sm.getPixmap().drawPixmap(before, 0, 0);
-            sm.updateTexture();
+        applyTiles(tilesBefore);
+    }
+
+    @Override
+    public long getMemorySize() {
+        return getMemorySize(tilesBefore) + getMemorySize(tilesAfter);
+    }
+
+    private static long getMemorySize(IntMap<byte[]> tiles) {
+        long size = 0;
+        for (IntMap.Entry<byte[]> entry : tiles.entries()) {
+            size += entry.value.length;
+        }
+        return size;
+    }
+
+    @Override
+    public void spill(DataOutput out) throws IOException {
+        writeTiles(out, tilesBefore);
+        writeTiles(out, tilesAfter);
+        tilesBefore = new IntMap<>();
+        tilesAfter = new IntMap<>();
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException {
+        tilesBefore = readTiles(in);
+        tilesAfter = readTiles(in);
+    }
+
+    private static void writeTiles(DataOutput out, IntMap<byte[]> tiles) throws IOException {
+        out.writeInt(tiles.size);
+        for (IntMap.Entry<byte[]> entry : tiles.entries()) {
+            out.writeInt(entry.key);
+            out.writeInt(entry.value.length);
+            out.write(entry.value);
+        }
+    }
+
+    private static IntMap<byte[]> readTiles(DataInput in) throws IOException {
+        final int count = in.readInt();
+        final IntMap<byte[]> tiles = new IntMap<>(Math.max(1, count));
+        for (int i = 0; i < count; i++) {
+            final int tile = in.readInt();
+            final byte[] values = new byte[in.readInt()];
+            in.readFully(values);
+            tiles.put(tile, values);
         }
+        return tiles;
     }
 
     @Override
     public void dispose() {
-        after.dispose();
-        before.dispose();
-        after = null;
-        before = null;
+        tilesBefore = null;
+        tilesAfter = null;
         terrain = null;
     }
 
@@ -17,8 +17,10 @@
 package com.mbrlabs.mundus.scene3d.components;
 
 import com.badlogic.gdx.graphics.g3d.Shader;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.mbrlabs.mundus.commons.model.MModelInstance;
 import com.mbrlabs.mundus.commons.scene3d.GameObject;
+import com.mbrlabs.mundus.commons.scene3d.components.Bounded;
 import com.mbrlabs.mundus.commons.scene3d.components.Component;
 import com.mbrlabs.mundus.shader.Shaders;
 import com.mbrlabs.mundus.tools.picker.PickerColorEncoder;
@@ -28,7 +30,7 @@ import com.mbrlabs.mundus.tools.picker.PickerIDAttribute;
  * @author Marcus Brummer
  * @version 17-01-2016
  */
-public class ModelComponent extends PickableComponent {
+public class ModelComponent extends PickableComponent implements Bounded {
 
     private MModelInstance modelInstance;
     private Shader shader;
@@ -65,6 +67,12 @@ public class ModelComponent extends PickableComponent {
         return modelInstance;
     }
 
+    @Override
+    public BoundingBox getLocalBounds() {
+        if (modelInstance == null) return null;
+        return modelInstance.getModel().getBounds();
+    }
+
     @Override
     public void render(float delta) {
         modelInstance.modelInstance.transform.set(gameObject.getTransform());
@@ -20,6 +20,7 @@ import com.badlogic.gdx.graphics.g3d.Shader;
 import com.mbrlabs.mundus.commons.assets.TerrainAsset;
 import com.mbrlabs.mundus.commons.scene3d.GameObject;
 import com.mbrlabs.mundus.commons.scene3d.components.Component;
+import com.mbrlabs.mundus.commons.terrain.SplatMap;
 import com.mbrlabs.mundus.shader.Shaders;
 import com.mbrlabs.mundus.tools.picker.PickerColorEncoder;
 import com.mbrlabs.mundus.tools.picker.PickerIDAttribute;
@@ -70,6 +71,11 @@ public class TerrainComponent extends PickableComponent {
 
     @Override
     public void render(float delta) {
+        // upload pending splatmap changes now; the batch draws later
+        final SplatMap splatmap = terrain.getTerrain().getTerrainTexture().getSplatmap();
+        if (splatmap != null) splatmap.flush();
+
+        terrain.getTerrain().updateLod(gameObject.sceneGraph.scene.cam.position);
         gameObject.sceneGraph.batch.render(terrain.getTerrain(), gameObject.sceneGraph.scene.environment, shader);
     }
 
@@ -35,6 +35,7 @@ import com.mbrlabs.mundus.commons.utils.MathUtils;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.core.project.ProjectContext;
 import com.mbrlabs.mundus.core.project.ProjectManager;
+import com.mbrlabs.mundus.events.GameObjectModifiedEvent;
 import com.mbrlabs.mundus.history.CommandHistory;
 import com.mbrlabs.mundus.shader.Shaders;
 import com.mbrlabs.mundus.tools.picker.GameObjectPicker;
@@ -176,8 +177,7 @@ public class RotateTool extends TransformTool {
             }
 
             if (modified) {
-                gameObjectModifiedEvent.setGameObject(projectContext.currScene.currentSelection);
-                Mundus.postEvent(gameObjectModifiedEvent);
+                Mundus.postEvent(new GameObjectModifiedEvent(projectContext.currScene.currentSelection));
             }
 
             lastRot = angle;
@@ -36,6 +36,7 @@ import com.mbrlabs.mundus.commons.utils.MathUtils;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.core.project.ProjectContext;
 import com.mbrlabs.mundus.core.project.ProjectManager;
+import com.mbrlabs.mundus.events.GameObjectModifiedEvent;
 import com.mbrlabs.mundus.history.CommandHistory;
 import com.mbrlabs.mundus.history.commands.ScaleCommand;
 import com.mbrlabs.mundus.shader.Shaders;
@@ -207,8 +208,7 @@ public class ScaleTool extends TransformTool {
                 }
             }
             if (modified) {
-                gameObjectModifiedEvent.setGameObject(projectContext.currScene.currentSelection);
-                Mundus.postEvent(gameObjectModifiedEvent);
+                Mundus.postEvent(new GameObjectModifiedEvent(projectContext.currScene.currentSelection));
             }
         }
     }
@@ -19,7 +19,6 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.mbrlabs.mundus.core.project.ProjectManager;
-import com.mbrlabs.mundus.events.GameObjectModifiedEvent;
 import com.mbrlabs.mundus.history.CommandHistory;
 import com.mbrlabs.mundus.tools.picker.GameObjectPicker;
 import com.mbrlabs.mundus.tools.picker.ToolHandlePicker;
@@ -48,14 +47,11 @@ public abstract class TransformTool extends SelectionTool {
     protected static Color COLOR_SELECTED = Color.YELLOW;
 
     protected ToolHandlePicker handlePicker;
-    protected GameObjectModifiedEvent gameObjectModifiedEvent;
 
     public TransformTool(ProjectManager projectManager, GameObjectPicker goPicker, ToolHandlePicker handlePicker,
             Shader shader, ModelBatch batch, CommandHistory history) {
         super(projectManager, goPicker, shader, batch, history);
         this.handlePicker = handlePicker;
-
-        gameObjectModifiedEvent = new GameObjectModifiedEvent();
     }
 
     protected abstract void scaleHandles();
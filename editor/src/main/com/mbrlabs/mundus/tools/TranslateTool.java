@@ -96,8 +96,6 @@ public class TranslateTool extends TransformTool {
         zHandle = new TranslateHandle(Z_HANDLE_ID, zHandleModel);
         xzPlaneHandle = new TranslateHandle(XZ_HANDLE_ID, xzPlaneHandleModel);
         handles = new TranslateHandle[] { xHandle, yHandle, zHandle, xzPlaneHandle };
-
-        gameObjectModifiedEvent = new GameObjectModifiedEvent();
     }
 
     @Override
@@ -194,8 +192,7 @@ public class TranslateTool extends TransformTool {
             go.translate(vec);
 
             if (modified) {
-                gameObjectModifiedEvent.setGameObject(projectManager.current().currScene.currentSelection);
-                Mundus.postEvent(gameObjectModifiedEvent);
+                Mundus.postEvent(new GameObjectModifiedEvent(projectManager.current().currScene.currentSelection));
             }
 
             lastPos.set(rayEnd);
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mbrlabs.mundus.tools.brushes;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+/**
+ * Normalized brush values, precomputed from the red channel of a brush
+ * pixmap.
+ *
+ * Values are sampled bilinearly in brush space, where (0, 0) is the brush
+ * center and a distance of 1 is the brush radius. The brush can be rotated
+ * around its center.
+ *
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class BrushLut {
+
+    private final float[] values;
+    private final int width;
+    private final int height;
+    private final float centerX;
+    private final float centerY;
+
+    private float cos = 1;
+    private float sin = 0;
+
+    public BrushLut(Pixmap pixmap) {
+        width = pixmap.getWidth();
+        height = pixmap.getHeight();
+        centerX = width / 2;
+        centerY = height / 2;
+        values = new float[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // getPixel() always returns RGBA8888
+                values[y * width + x] = (pixmap.getPixel(x, y) >>> 24) / 255f;
+            }
+        }
+    }
+
+    /**
+     * @param degrees
+     *            counter clockwise rotation of the brush
+     */
+    public void setRotation(float degrees) {
+        final double rad = Math.toRadians(degrees);
+        cos = (float) Math.cos(rad);
+        sin = (float) Math.sin(rad);
+    }
+
+    /**
+     * @param u
+     *            x offset from the brush center divided by the brush radius
+     * @param v
+     *            y offset from the brush center divided by the brush radius
+     * @return brush value in [0, 1]
+     */
+    public float sample(float u, float v) {
+        final float ru = u * cos + v * sin;
+        final float rv = v * cos - u * sin;
+
+        final float px = Math.max(0, Math.min(width - 1, centerX + ru * centerX));
+        final float py = Math.max(0, Math.min(height - 1, centerY + rv * centerY));
+        final int x0 = Math.min((int) px, width - 2);
+        final int y0 = Math.min((int) py, height - 2);
+        if (x0 < 0 || y0 < 0) {
+            return values[(int) py * width + (int) px];
+        }
+        final float fx = px - x0;
+        final float fy = py - y0;
+
+        final int i = y0 * width + x0;
+        final float top = values[i] + fx * (values[i + 1] - values[i]);
+        final float bottom = values[i + width] + fx * (values[i + width + 1] - values[i + width]);
+        return top + fy * (bottom - top);
+    }
+
+}
@@ -19,7 +19,6 @@ package com.mbrlabs.mundus.tools.brushes;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g3d.Material;
@@ -28,7 +27,6 @@ import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.badlogic.gdx.graphics.g3d.ModelInstance;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.math.collision.Ray;
@@ -99,10 +97,6 @@ public abstract class TerrainBrush extends Tool {
     }
 
     // used for calculations
-    protected static final Vector2 c = new Vector2();
-    protected static final Vector2 p = new Vector2();
-    protected static final Vector2 v = new Vector2();
-    protected static final Color c0 = new Color();
     protected static final Vector3 tVec0 = new Vector3();
     protected static final Vector3 tVec1 = new Vector3();
 
@@ -110,6 +104,7 @@ public abstract class TerrainBrush extends Tool {
     private static GlobalBrushSettingsChangedEvent brushSettingsChangedEvent = new GlobalBrushSettingsChangedEvent();
     private static float strength = 0.5f;
     private static float heightSample = 0f;
+    private static float rotation = 0f;
     private static SplatTexture.Channel paintChannel;
 
     // individual brush settings
@@ -126,8 +121,7 @@ public abstract class TerrainBrush extends Tool {
     private int lastMousePosIndicator = 0;
 
     // the pixmap brush
-    private Pixmap brushPixmap;
-    private int pixmapCenter;
+    private BrushLut brushLut;
 
     // undo/redo system
     private TerrainHeightCommand heightCommand = null;
@@ -135,6 +129,18 @@ public abstract class TerrainBrush extends Tool {
     private boolean terrainHeightModified = false;
     private boolean splatmapModified = false;
 
+    // grid region covered by the brush
+    private int brushMinX;
+    private int brushMinZ;
+    private int brushMaxX;
+    private int brushMaxZ;
+
+    // grid region modified by the current stamp
+    private int dirtyMinX;
+    private int dirtyMinZ;
+    private int dirtyMaxX;
+    private int dirtyMaxZ;
+
     public TerrainBrush(ProjectManager projectManager, Shader shader, ModelBatch batch, CommandHistory history,
             FileHandle pixmapBrush) {
         super(projectManager, shader, batch, history);
@@ -145,8 +151,9 @@ public abstract class TerrainBrush extends Tool {
         sphereModelInstance.calculateBoundingBox(boundingBox);
         scale(15);
 
-        brushPixmap = new Pixmap(pixmapBrush);
-        pixmapCenter = brushPixmap.getWidth() / 2;
+        Pixmap brushPixmap = new Pixmap(pixmapBrush);
+        brushLut = new BrushLut(brushPixmap);
+        brushPixmap.dispose();
     }
 
     @Override
@@ -163,6 +170,7 @@ public abstract class TerrainBrush extends Tool {
         // only act if mouse has been moved
         if (lastMousePosIndicator == Gdx.input.getX() + Gdx.input.getY()) return;
 
+        brushLut.setRotation(rotation);
         if (mode == BrushMode.PAINT) {
             paint();
         } else if (mode == BrushMode.RAISE_LOWER) {
@@ -182,31 +190,44 @@ public abstract class TerrainBrush extends Tool {
         final float splatRad = (radius / terrain.terrainWidth) * sm.getWidth();
         final Pixmap pixmap = sm.getPixmap();
 
-        for (int smX = 0; smX < pixmap.getWidth(); smX++) {
-            for (int smY = 0; smY < pixmap.getHeight(); smY++) {
+        // only visit the pixels inside the bounding rectangle of the brush
+        final int minX = Math.max(0, (int) Math.floor(splatX - splatRad));
+        final int minY = Math.max(0, (int) Math.floor(splatY - splatRad));
+        final int maxX = Math.min(pixmap.getWidth() - 1, (int) Math.ceil(splatX + splatRad));
+        final int maxY = Math.min(pixmap.getHeight() - 1, (int) Math.ceil(splatY + splatRad));
+        if (paintCommand != null) {
+            paintCommand.captureBefore(minX, minY, maxX, maxY);
+        }
+
+        for (int smX = minX; smX <= maxX; smX++) {
+            for (int smY = minY; smY <= maxY; smY++) {
                 final float dst = MathUtils.dst(splatX, splatY, smX, smY);
                 if (dst <= splatRad) {
                     final float opacity = getValueOfBrushPixmap(splatX, splatY, smX, smY, splatRad) * 0.5f * strength;
-                    int newPixelColor = sm.additiveBlend(pixmap.getPixel(smX, smY), paintChannel, opacity);
-                    pixmap.drawPixel(smX, smY, newPixelColor);
+                    sm.additiveBlend(smX, smY, paintChannel, opacity);
                 }
             }
         }
 
-        sm.updateTexture();
         splatmapModified = true;
     }
 
     private void flatten() {
         final Vector3 terPos = terrain.getPosition(tVec1);
-        for (int x = 0; x < terrain.vertexResolution; x++) {
-            for (int z = 0; z < terrain.vertexResolution; z++) {
+        resetDirtyRegion();
+        updateBrushBounds(terPos);
+        if (heightCommand != null) {
+            heightCommand.captureBefore(brushMinX, brushMinZ, brushMaxX, brushMaxZ);
+        }
+        for (int x = brushMinX; x <= brushMaxX; x++) {
+            for (int z = brushMinZ; z <= brushMaxZ; z++) {
                 final Vector3 vertexPos = terrain.getVertexPosition(tVec0, x, z);
                 vertexPos.x += terPos.x;
                 vertexPos.z += terPos.z;
                 float distance = vertexPos.dst(brushPos);
 
                 if (distance <= radius) {
+                    markDirty(x, z);
                     final int index = z * terrain.vertexResolution + x;
                     final float diff = Math.abs(terrain.heightData[index] - heightSample);
                     if (diff <= 1f) {
@@ -223,39 +244,85 @@ public abstract class TerrainBrush extends Tool {
             }
         }
 
-        terrain.update();
+        updateDirtyRegion();
         terrainHeightModified = true;
     }
 
     private void raiseLower(BrushAction action) {
         final Vector3 terPos = terrain.getPosition(tVec1);
         float dir = (action == BrushAction.PRIMARY) ? 1 : -1;
-        for (int x = 0; x < terrain.vertexResolution; x++) {
-            for (int z = 0; z < terrain.vertexResolution; z++) {
+        resetDirtyRegion();
+        updateBrushBounds(terPos);
+        if (heightCommand != null) {
+            heightCommand.captureBefore(brushMinX, brushMinZ, brushMaxX, brushMaxZ);
+        }
+        for (int x = brushMinX; x <= brushMaxX; x++) {
+            for (int z = brushMinZ; z <= brushMaxZ; z++) {
                 final Vector3 vertexPos = terrain.getVertexPosition(tVec0, x, z);
                 vertexPos.x += terPos.x;
                 vertexPos.z += terPos.z;
                 float distance = vertexPos.dst(brushPos);
 
                 if (distance <= radius) {
+                    markDirty(x, z);
                     float elevation = getValueOfBrushPixmap(brushPos.x, brushPos.z, vertexPos.x, vertexPos.z, radius);
                     terrain.heightData[z * terrain.vertexResolution + x] += dir * elevation * strength;
                 }
             }
         }
 
-        terrain.update();
+        updateDirtyRegion();
         terrainHeightModified = true;
     }
 
     /**
-     * Interpolates the brush texture in the range of centerX - radius to
-     * centerX + radius and centerZ - radius to centerZ + radius. PointZ &
-     * pointX lies between these ranges.
+     * Calculates the grid rectangle, that contains all vertices within the
+     * brush radius.
+     */
+    private void updateBrushBounds(Vector3 terrainPos) {
+        final int cells = terrain.vertexResolution - 1;
+        final float cellWidth = terrain.terrainWidth / (float) cells;
+        final float cellDepth = terrain.terrainDepth / (float) cells;
+        final float localX = brushPos.x - terrainPos.x;
+        final float localZ = brushPos.z - terrainPos.z;
+
+        brushMinX = Math.max(0, (int) Math.floor((localX - radius) / cellWidth));
+        brushMinZ = Math.max(0, (int) Math.floor((localZ - radius) / cellDepth));
+        brushMaxX = Math.min(cells, (int) Math.ceil((localX + radius) / cellWidth));
+        brushMaxZ = Math.min(cells, (int) Math.ceil((localZ + radius) / cellDepth));
+    }
+
+    private void resetDirtyRegion() {
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinZ = Integer.MAX_VALUE;
+        dirtyMaxX = Integer.MIN_VALUE;
+        dirtyMaxZ = Integer.MIN_VALUE;
+    }
+
+    private void markDirty(int x, int z) {
+        if (x < dirtyMinX) dirtyMinX = x;
+        if (z < dirtyMinZ) dirtyMinZ = z;
+        if (x > dirtyMaxX) dirtyMaxX = x;
+        if (z > dirtyMaxZ) dirtyMaxZ = z;
+    }
+
+    /**
+     * Rebuilds only the part of the terrain mesh, that has been touched by the
+     * last stamp.
+     */
+    private void updateDirtyRegion() {
+        if (dirtyMinX > dirtyMaxX) return;
+        terrain.update(dirtyMinX, dirtyMinZ, dirtyMaxX, dirtyMaxZ);
+    }
+
+    /**
+     * Samples the brush in the range of centerX - radius to centerX + radius
+     * and centerZ - radius to centerZ + radius. PointZ & pointX lies between
+     * these ranges.
      *
-     * Interpolation is necessary, since the brush pixmap is fixed sized,
-     * whereas the input values can scale. (Input points can be vertices or
-     * splatmap texture coordinates)
+     * The brush values are interpolated, since the brush pixmap is fixed
+     * sized, whereas the input values can scale. (Input points can be vertices
+     * or splatmap texture coordinates)
      *
      * @param centerX
      * @param centerZ
@@ -268,18 +335,7 @@ public abstract class TerrainBrush extends Tool {
      *         or opacity (paint)
      */
     private float getValueOfBrushPixmap(float centerX, float centerZ, float pointX, float pointZ, float radius) {
-        c.set(centerX, centerZ);
-        p.set(pointX, pointZ);
-        v.set(p.sub(c));
-
-        final float progress = v.len() / radius;
-        v.nor().scl(pixmapCenter * progress);
-
-        final float mapX = pixmapCenter + (int) v.x;
-        final float mapY = pixmapCenter + (int) v.y;
-        c0.set(brushPixmap.getPixel((int) mapX, (int) mapY));
-
-        return c0.r;
+        return brushLut.sample((pointX - centerX) / radius, (pointZ - centerZ) / radius);
     }
 
     public void scale(float amount) {
@@ -305,6 +361,19 @@ public abstract class TerrainBrush extends Tool {
         Mundus.postEvent(brushSettingsChangedEvent);
     }
 
+    public static float getRotation() {
+        return rotation;
+    }
+
+    /**
+     * @param rotation
+     *            counter clockwise rotation of the brush pixmap in degrees
+     */
+    public static void setRotation(float rotation) {
+        TerrainBrush.rotation = rotation;
+        Mundus.postEvent(brushSettingsChangedEvent);
+    }
+
     public static SplatTexture.Channel getPaintChannel() {
         return paintChannel;
     }
@@ -355,19 +424,19 @@ public abstract class TerrainBrush extends Tool {
 
     @Override
     public void dispose() {
-        brushPixmap.dispose();
+        // the brush pixmap is disposed after building the lut
+        sphereModel.dispose();
     }
 
     @Override
     public boolean touchUp(int screenX, int screenY, int pointer, int button) {
         if (terrainHeightModified && heightCommand != null) {
-            heightCommand.setHeightDataAfter(terrain.heightData);
-            history.add(heightCommand);
+            heightCommand.captureAfter();
+            if (heightCommand.isModified()) history.add(heightCommand);
         }
         if (splatmapModified && paintCommand != null) {
-            final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
-            paintCommand.setAfter(sm.getPixmap());
-            history.add(paintCommand);
+            paintCommand.captureAfter();
+            if (paintCommand.isModified()) history.add(paintCommand);
         }
         splatmapModified = false;
         terrainHeightModified = false;
@@ -408,12 +477,10 @@ public abstract class TerrainBrush extends Tool {
 
         if (mode == BrushMode.FLATTEN || mode == BrushMode.RAISE_LOWER || mode == BrushMode.SMOOTH) {
             heightCommand = new TerrainHeightCommand(terrain);
-            heightCommand.setHeightDataBefore(terrain.heightData);
         } else if (mode == BrushMode.PAINT) {
             final SplatMap sm = terrain.getTerrainTexture().getSplatmap();
             if (sm != null) {
                 paintCommand = new TerrainPaintCommand(terrain);
-                paintCommand.setBefore(sm.getPixmap());
             }
         }
 
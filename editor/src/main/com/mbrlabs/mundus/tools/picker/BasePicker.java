@@ -18,7 +18,6 @@ package com.mbrlabs.mundus.tools.picker;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.GL30;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.HdpiUtils;
@@ -37,6 +36,9 @@ public abstract class BasePicker implements Disposable {
 
     protected FrameBuffer fbo;
 
+    // RGBA of a single pixel
+    private final ByteBuffer pixelBuffer = BufferUtils.newByteBuffer(4);
+
     public BasePicker() {
         int width = Gdx.graphics.getWidth();
         int height = Gdx.graphics.getHeight();
@@ -56,40 +58,53 @@ public abstract class BasePicker implements Disposable {
 
     }
 
-    protected void begin(Viewport viewport) {
+    /**
+     * Starts rendering the pick pass. Rendering is scissored to the pixel
+     * under the cursor, which is the only one read back afterwards.
+     *
+     * @param viewport
+     *            viewport of the scene
+     * @param screenX
+     *            cursor position in screen coordinates (origin top left)
+     * @param screenY
+     *            cursor position in screen coordinates (origin top left)
+     */
+    protected void begin(Viewport viewport, int screenX, int screenY) {
         fbo.begin();
+        Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+        Gdx.gl.glScissor(screenX, toFramebufferY(screenY), 1, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT | GL20.GL_DEPTH_BUFFER_BIT);
         HdpiUtils.glViewport(viewport.getScreenX(), viewport.getScreenY(), viewport.getScreenWidth(),
                 viewport.getScreenHeight());
     }
 
     protected void end() {
+        Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
         fbo.end();
     }
 
-    public Pixmap getFrameBufferPixmap(Viewport viewport) {
-        int w = viewport.getScreenWidth();
-        int h = viewport.getScreenHeight();
-        int x = viewport.getScreenX();
-        int y = viewport.getScreenY();
-        final ByteBuffer pixelBuffer = BufferUtils.newByteBuffer(w * h * 4);
-
+    /**
+     * Reads back the pixel under the cursor & decodes it.
+     *
+     * @param screenX
+     *            cursor position in screen coordinates (origin top left)
+     * @param screenY
+     *            cursor position in screen coordinates (origin top left)
+     * @return decoded id of the picked pixel
+     */
+    protected int readPickedId(int screenX, int screenY) {
+        pixelBuffer.clear();
         Gdx.gl.glBindFramebuffer(GL20.GL_FRAMEBUFFER, fbo.getFramebufferHandle());
-        Gdx.gl.glReadPixels(x, y, w, h, GL30.GL_RGBA, GL30.GL_UNSIGNED_BYTE, pixelBuffer);
+        Gdx.gl.glReadPixels(screenX, toFramebufferY(screenY), 1, 1, GL20.GL_RGBA, GL20.GL_UNSIGNED_BYTE, pixelBuffer);
         Gdx.gl.glBindFramebuffer(GL20.GL_FRAMEBUFFER, 0);
 
-        final int numBytes = w * h * 4;
-        byte[] imgLines = new byte[numBytes];
-        final int numBytesPerLine = w * 4;
-        for (int i = 0; i < h; i++) {
-            pixelBuffer.position((h - i - 1) * numBytesPerLine);
-            pixelBuffer.get(imgLines, i * numBytesPerLine, numBytesPerLine);
-        }
-
-        Pixmap pixmap = new Pixmap(w, h, Pixmap.Format.RGBA8888);
-        BufferUtils.copy(imgLines, 0, pixmap.getPixels(), imgLines.length);
+        final int rgba8888 = (pixelBuffer.get(0) & 0xff) << 24 | (pixelBuffer.get(1) & 0xff) << 16
+                | (pixelBuffer.get(2) & 0xff) << 8 | (pixelBuffer.get(3) & 0xff);
+        return PickerColorEncoder.decode(rgba8888);
+    }
 
-        return pixmap;
+    private int toFramebufferY(int screenY) {
+        return Gdx.graphics.getHeight() - 1 - screenY;
     }
 
     @Override
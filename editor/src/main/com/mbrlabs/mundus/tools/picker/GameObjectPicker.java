@@ -16,8 +16,6 @@
 
 package com.mbrlabs.mundus.tools.picker;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.mbrlabs.mundus.commons.scene3d.GameObject;
 import com.mbrlabs.mundus.commons.scene3d.SceneGraph;
 import com.mbrlabs.mundus.commons.scene3d.components.Component;
@@ -42,24 +40,13 @@ public class GameObjectPicker extends BasePicker {
     }
 
     public GameObject pick(EditorScene scene, int screenX, int screenY) {
-        begin(scene.viewport);
+        begin(scene.viewport, screenX, screenY);
         renderPickableScene(scene.sceneGraph);
         end();
-        Pixmap pm = getFrameBufferPixmap(scene.viewport);
 
-        int x = screenX - scene.viewport.getScreenX();
-        int y = screenY - (Gdx.graphics.getHeight() - (scene.viewport.getScreenY() + scene.viewport.getScreenHeight()));
-
-        int id = PickerColorEncoder.decode(pm.getPixel(x, y));
+        int id = readPickedId(screenX, screenY);
         System.out.println(id);
-        for (GameObject go : scene.sceneGraph.getGameObjects()) {
-            if (id == go.id) return go;
-            for (GameObject child : go) {
-                if (id == child.id) return child;
-            }
-        }
-
-        return null;
+        return scene.sceneGraph.findById(id);
     }
 
     private void renderPickableScene(SceneGraph sceneGraph) {
@@ -16,9 +16,7 @@
 
 package com.mbrlabs.mundus.tools.picker;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
 import com.mbrlabs.mundus.core.EditorScene;
 import com.mbrlabs.mundus.tools.ToolHandle;
@@ -35,15 +33,11 @@ public class ToolHandlePicker extends BasePicker {
     }
 
     public ToolHandle pick(ToolHandle[] handles, EditorScene scene, int screenX, int screenY) {
-        begin(scene.viewport);
+        begin(scene.viewport, screenX, screenY);
         renderPickableScene(handles, scene.sceneGraph.batch, scene.cam);
         end();
-        Pixmap pm = getFrameBufferPixmap(scene.viewport);
 
-        int x = screenX - scene.viewport.getScreenX();
-        int y = screenY - (Gdx.graphics.getHeight() - (scene.viewport.getScreenY() + scene.viewport.getScreenHeight()));
-
-        int id = PickerColorEncoder.decode(pm.getPixel(x, y));
+        int id = readPickedId(screenX, screenY);
         Log.trace("ToolHandlePicker", "Picking handle with id {}", id);
         for (ToolHandle handle : handles) {
             if (handle.getId() == id) {
@@ -46,6 +46,7 @@ import com.mbrlabs.mundus.core.Inject;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.core.project.ProjectContext;
 import com.mbrlabs.mundus.core.project.ProjectManager;
+import com.mbrlabs.mundus.events.Deferred;
 import com.mbrlabs.mundus.events.GameObjectSelectedEvent;
 import com.mbrlabs.mundus.events.ProjectChangedEvent;
 import com.mbrlabs.mundus.events.SceneChangedEvent;
@@ -139,6 +140,7 @@ public class Outline extends VisTable
     }
 
     @Override
+    @Deferred
     public void onSceneGraphChanged(SceneGraphChangedEvent sceneGraphChangedEvent) {
         Log.trace(TAG, "SceneGraph changed. Building scene graph.");
         buildTree(sceneGraph);
@@ -25,9 +25,12 @@ import com.kotcrab.vis.ui.VisUI;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTextButton;
+import com.mbrlabs.mundus.commons.g3d.RenderQueue;
+import com.mbrlabs.mundus.commons.scene3d.SceneGraph;
 import com.mbrlabs.mundus.core.Inject;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.core.project.ProjectManager;
+import com.mbrlabs.mundus.history.CommandHistory;
 import com.mbrlabs.mundus.input.FreeCamController;
 import com.mbrlabs.mundus.utils.StringUtils;
 
@@ -43,6 +46,9 @@ public class StatusBar extends VisTable {
 
     private VisLabel fpsLabel;
     private VisLabel camPos;
+    private VisLabel undoMemory;
+    private VisLabel culling;
+    private VisLabel renderStats;
 
     private VisTextButton speed01;
     private VisTextButton speed1;
@@ -52,6 +58,8 @@ public class StatusBar extends VisTable {
     private FreeCamController freeCamController;
     @Inject
     private ProjectManager projectManager;
+    @Inject
+    private CommandHistory history;
 
     public StatusBar() {
         super();
@@ -82,6 +90,15 @@ public class StatusBar extends VisTable {
         // right
         fpsLabel = new VisLabel();
         camPos = new VisLabel();
+        undoMemory = new VisLabel();
+        culling = new VisLabel();
+        renderStats = new VisLabel();
+        right.add(renderStats).right();
+        right.addSeparator(true).padLeft(5).padRight(5);
+        right.add(culling).right();
+        right.addSeparator(true).padLeft(5).padRight(5);
+        right.add(undoMemory).right();
+        right.addSeparator(true).padLeft(5).padRight(5);
         right.add(camPos).right();
         right.addSeparator(true).padLeft(5).padRight(5);
         right.add(fpsLabel).right();
@@ -116,6 +133,9 @@ public class StatusBar extends VisTable {
     public void act(float delta) {
         setFps(Gdx.graphics.getFramesPerSecond());
         setCamPos(projectManager.current().currScene.cam.position);
+        setUndoMemory(history.getMemorySize(), history.getSpilledCount());
+        setCulling(projectManager.current().currScene.sceneGraph);
+        setRenderStats(Mundus.modelBatch);
         super.act(delta);
     }
 
@@ -123,6 +143,23 @@ public class StatusBar extends VisTable {
         this.fpsLabel.setText("fps: " + fps);
     }
 
+    private void setUndoMemory(long bytes, int spilled) {
+        String text = "undo: " + StringUtils.formatFloat(bytes / (1024f * 1024f), 1) + " MB";
+        if (spilled > 0) {
+            text += " (" + spilled + " on disk)";
+        }
+        undoMemory.setText(text);
+    }
+
+    private void setCulling(SceneGraph sceneGraph) {
+        culling.setText("visible: " + sceneGraph.getVisibleCount() + " (" + sceneGraph.getCulledCount() + " culled)");
+    }
+
+    private void setRenderStats(RenderQueue queue) {
+        renderStats.setText("draws: " + queue.getDrawCalls() + ", shaders: " + queue.getShaderSwitches()
+                + ", binds: " + queue.getTextureBinds());
+    }
+
     private void setCamPos(Vector3 pos) {
         camPos.setText("camPos: " + StringUtils.formatFloat(pos.x, 2) + ", " + StringUtils.formatFloat(pos.y, 2) + ", "
                 + StringUtils.formatFloat(pos.z, 2));
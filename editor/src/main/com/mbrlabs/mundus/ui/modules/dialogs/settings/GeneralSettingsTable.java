@@ -21,6 +21,7 @@ import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
+import com.kotcrab.vis.ui.widget.VisCheckBox;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisSelectBox;
 import com.kotcrab.vis.ui.widget.VisTable;
@@ -42,6 +43,7 @@ public class GeneralSettingsTable extends VisTable {
 
     private FileChooserField fbxBinary;
     private VisSelectBox<KeyboardLayout> keyboardLayouts;
+    private VisCheckBox transformStore;
     private VisTextButton save;
 
     private Registry registry;
@@ -70,6 +72,10 @@ public class GeneralSettingsTable extends VisTable {
         add(new VisLabel("Keyboard Layout:")).left();
         add(keyboardLayouts).left().row();
 
+        // takes effect when the next scene is loaded
+        transformStore = new VisCheckBox("Batch transforms of large scenes (next scene load)");
+        add(transformStore).left().colspan(2).padTop(5).row();
+
         save = new VisTextButton("Save");
         save.align(Align.bottom);
         add(save).expandX().fillX().expandY().height(25).bottom().colspan(2).row();
@@ -80,6 +86,7 @@ public class GeneralSettingsTable extends VisTable {
 
     public void reloadSettings() {
         fbxBinary.setText(registry.getSettings().getFbxConvBinary());
+        transformStore.setChecked(registry.getSettings().isTransformStore());
     }
 
     private void addHandlers() {
@@ -89,6 +96,7 @@ public class GeneralSettingsTable extends VisTable {
                 super.clicked(event, x, y);
                 String fbxPath = fbxBinary.getPath();
                 registry.getSettings().setFbxConvBinary(fbxPath);
+                registry.getSettings().setTransformStore(transformStore.isChecked());
                 kryoManager.saveRegistry(registry);
                 Mundus.postEvent(new SettingsChangedEvent(registry.getSettings()));
                 Ui.getInstance().getToaster().success("Settings saved");
@@ -16,13 +16,14 @@
 
 package com.mbrlabs.mundus.ui.modules.inspector;
 
+import com.badlogic.gdx.utils.Disposable;
 import com.mbrlabs.mundus.commons.scene3d.components.Component;
 
 /**
  * @author Marcus Brummer
  * @version 22-01-2016
  */
-public abstract class ComponentWidget<T extends Component> extends BaseInspectorWidget {
+public abstract class ComponentWidget<T extends Component> extends BaseInspectorWidget implements Disposable {
 
     public T component;
 
@@ -38,4 +39,11 @@ public abstract class ComponentWidget<T extends Component> extends BaseInspector
         remove();
     }
 
+    /**
+     * Called by the inspector, before the widget is thrown away.
+     */
+    @Override
+    public void dispose() {
+    }
+
 }
@@ -32,6 +32,7 @@ import com.mbrlabs.mundus.core.Inject;
 import com.mbrlabs.mundus.core.Mundus;
 import com.mbrlabs.mundus.core.project.ProjectContext;
 import com.mbrlabs.mundus.core.project.ProjectManager;
+import com.mbrlabs.mundus.events.Deferred;
 import com.mbrlabs.mundus.events.GameObjectModifiedEvent;
 import com.mbrlabs.mundus.events.GameObjectSelectedEvent;
 import com.mbrlabs.mundus.scene3d.components.ModelComponent;
@@ -112,6 +113,9 @@ public class Inspector extends VisTable implements GameObjectSelectedEvent.GameO
 
     private void buildComponentWidgets() {
         final ProjectContext projectContext = projectManager.current();
+        for (ComponentWidget<?> cw : componentWidgets) {
+            cw.dispose();
+        }
         componentWidgets.clear();
         if (projectContext.currScene.currentSelection != null) {
             for (Component component : projectContext.currScene.currentSelection.getComponents()) {
@@ -152,6 +156,7 @@ public class Inspector extends VisTable implements GameObjectSelectedEvent.GameO
     }
 
     @Override
+    @Deferred
     public void onGameObjectModified(GameObjectModifiedEvent gameObjectModifiedEvent) {
         final ProjectContext projectContext = projectManager.current();
         identifierWidget.setValues(projectContext.currScene.currentSelection);
@@ -74,6 +74,7 @@ public class ModelComponentWidget extends ComponentWidget<ModelComponent> {
                 if (model != null) {
                     component.getModelInstance().replaceModel(model);
                     component.encodeRaypickColorId();
+                    component.getGameObject().sceneGraph.invalidateBounds(component.getGameObject());
                 }
             }
         });
@@ -27,6 +27,7 @@ import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.mbrlabs.mundus.core.Inject;
 import com.mbrlabs.mundus.core.Mundus;
+import com.mbrlabs.mundus.events.Deferred;
 import com.mbrlabs.mundus.events.GlobalBrushSettingsChangedEvent;
 import com.mbrlabs.mundus.tools.ToolManager;
 import com.mbrlabs.mundus.tools.brushes.TerrainBrush;
@@ -46,6 +47,7 @@ public class TerrainBrushGrid extends VisTable
 
     private GridGroup grid;
     private ImprovedSlider strengthSlider;
+    private ImprovedSlider rotationSlider;
 
     @Inject
     private ToolManager toolManager;
@@ -81,6 +83,17 @@ public class TerrainBrushGrid extends VisTable
             }
         });
 
+        settingsTable.add(new VisLabel("Rotation")).left().row();
+        rotationSlider = new ImprovedSlider(0, 360, 15);
+        rotationSlider.setValue(TerrainBrush.getRotation());
+        settingsTable.add(rotationSlider).expandX().fillX().row();
+        rotationSlider.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                TerrainBrush.setRotation(rotationSlider.getValue());
+            }
+        });
+
         add(brushGridContainerTable).expand().fill().padLeft(5).padRight(5).row();
         add(settingsTable).expand().fill().padLeft(5).padRight(5).padTop(5).row();
     }
@@ -110,8 +123,10 @@ public class TerrainBrushGrid extends VisTable
     }
 
     @Override
+    @Deferred
     public void onSettingsChanged(GlobalBrushSettingsChangedEvent event) {
         strengthSlider.setValue(TerrainBrush.getStrength());
+        rotationSlider.setValue(TerrainBrush.getRotation());
     }
 
     /**
@@ -85,6 +85,13 @@ public class TerrainComponentWidget extends ComponentWidget<TerrainComponent> im
         }
     }
 
+    @Override
+    public void dispose() {
+        for (Tab tab : tabbedPane.getTabs()) {
+            tab.dispose();
+        }
+    }
+
     @Override
     public void switchedTab(Tab tab) {
         tabContainer.clearChildren();
@@ -17,17 +17,29 @@
 package com.mbrlabs.mundus.ui.modules.inspector.terrain;
 
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.kotcrab.vis.ui.util.dialog.Dialogs;
 import com.kotcrab.vis.ui.widget.VisLabel;
+import com.kotcrab.vis.ui.widget.VisSelectBox;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTextButton;
 import com.kotcrab.vis.ui.widget.tabbedpane.Tab;
 import com.mbrlabs.mundus.commons.terrain.Terrain;
+import com.mbrlabs.mundus.commons.assets.TerrainAsset;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMap;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMapExporter;
+import com.mbrlabs.mundus.commons.terrain.terraform.HeightMapImporter;
+import com.mbrlabs.mundus.commons.terrain.terraform.TerrainPipeline;
 import com.mbrlabs.mundus.commons.terrain.terraform.Terraformer;
 import com.mbrlabs.mundus.core.Inject;
 import com.mbrlabs.mundus.core.Mundus;
@@ -39,6 +51,10 @@ import com.mbrlabs.mundus.ui.widgets.FileChooserField;
 import com.mbrlabs.mundus.ui.widgets.FloatFieldWithLabel;
 import com.mbrlabs.mundus.ui.widgets.IntFieldWithLabel;
 import com.mbrlabs.mundus.utils.FileFormatUtils;
+import com.mbrlabs.mundus.utils.Log;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * @author Marcus Brummer
@@ -46,16 +62,27 @@ import com.mbrlabs.mundus.utils.FileFormatUtils;
  */
 public class TerrainGenTab extends Tab {
 
+    private static final String TAG = TerrainGenTab.class.getSimpleName();
+
+    private static final int PREVIEW_SIZE = 128;
+
     private TerrainComponentWidget parent;
     private VisTable root;
 
     private FileChooserField hmInput;
     private VisTextButton loadHeightMapBtn;
 
+    private FileChooserField hmOutput;
+    private VisSelectBox<String> hmFormat;
+    private VisTextButton exportHeightMapBtn;
+
     private VisTextButton perlinNoiseBtn;
     private IntFieldWithLabel perlinNoiseSeed;
     private FloatFieldWithLabel perlinNoiseMinHeight;
     private FloatFieldWithLabel perlinNoiseMaxHeight;
+    private VisTextButton perlinPreviewBtn;
+    private Image perlinPreview;
+    private Texture perlinPreviewTexture;
 
     @Inject
     private ToolManager toolManager;
@@ -71,19 +98,34 @@ public class TerrainGenTab extends Tab {
 
         hmInput = new FileChooserField();
         loadHeightMapBtn = new VisTextButton("Load heightmap");
+        hmOutput = new FileChooserField();
+        hmOutput.setFileMode(false);
+        hmFormat = new VisSelectBox<>();
+        hmFormat.setItems(HeightMapImporter.FORMAT_PNG, HeightMapImporter.FORMAT_PGM,
+                HeightMapImporter.FORMAT_RAW_16, HeightMapImporter.FORMAT_RAW_8);
+        exportHeightMapBtn = new VisTextButton("Export heightmap");
         perlinNoiseBtn = new VisTextButton("Generate Perlin noise");
         perlinNoiseSeed = new IntFieldWithLabel("Seed", -1, false);
         perlinNoiseMinHeight = new FloatFieldWithLabel("Min height", -1, true);
         perlinNoiseMaxHeight = new FloatFieldWithLabel("Max height", -1, true);
+        perlinPreviewBtn = new VisTextButton("Preview");
+        perlinPreview = new Image();
 
         root.add(new VisLabel("Load Heightmap")).pad(5).left().row();
         root.add(hmInput).left().expandX().fillX().row();
         root.add(loadHeightMapBtn).padLeft(5).left().row();
 
+        root.add(new VisLabel("Export Heightmap")).pad(5).padTop(10).left().row();
+        root.add(hmOutput).left().expandX().fillX().row();
+        root.add(hmFormat).pad(5).left().row();
+        root.add(exportHeightMapBtn).padLeft(5).left().row();
+
         root.add(new VisLabel("Perlin Noise")).pad(5).padTop(10).left().row();
         root.add(perlinNoiseSeed).pad(5).left().fillX().expandX().row();
         root.add(perlinNoiseMinHeight).pad(5).left().fillX().expandX().row();
         root.add(perlinNoiseMaxHeight).pad(5).left().fillX().expandX().row();
+        root.add(perlinPreview).size(PREVIEW_SIZE).pad(5).left().row();
+        root.add(perlinPreviewBtn).pad(5).left().row();
         root.add(perlinNoiseBtn).pad(5).left().row();
 
         setupListeners();
@@ -94,7 +136,7 @@ public class TerrainGenTab extends Tab {
             @Override
             public void clicked(InputEvent event, float x, float y) {
                 FileHandle hm = hmInput.getFile();
-                if (hm != null && hm.exists() && FileFormatUtils.isImage(hm)) {
+                if (hm != null && hm.exists() && (FileFormatUtils.isImage(hm) || HeightMapImporter.isSupported(hm))) {
                     loadHeightMap(hm);
                 } else {
                     Dialogs.showErrorDialog(Ui.getInstance(), "Please select a heightmap image");
@@ -102,6 +144,18 @@ public class TerrainGenTab extends Tab {
             }
         });
 
+        exportHeightMapBtn.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                FileHandle folder = hmOutput.getFile();
+                if (folder != null && folder.isDirectory()) {
+                    exportHeightMap(folder);
+                } else {
+                    Dialogs.showErrorDialog(Ui.getInstance(), "Please select an output folder");
+                }
+            }
+        });
+
         perlinNoiseBtn.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
@@ -111,12 +165,42 @@ public class TerrainGenTab extends Tab {
                 generatePerlinNoise(seed, min, max);
             }
         });
+
+        perlinPreviewBtn.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                int seed = perlinNoiseSeed.getInt();
+                float min = perlinNoiseMinHeight.getFloat();
+                float max = perlinNoiseMaxHeight.getFloat();
+                previewPerlinNoise(seed, min, max);
+            }
+        });
     }
 
     private void loadHeightMap(FileHandle heightMap) {
         Terrain terrain = parent.component.getTerrain().getTerrain();
+
+        // 16 bit & raw formats are read directly, without a pixmap
+        if (HeightMapImporter.isSupported(heightMap)) {
+            HeightMap map;
+            try {
+                map = HeightMapImporter.read(heightMap);
+            } catch (GdxRuntimeException e) {
+                Log.exception(TAG, e);
+                Dialogs.showErrorDialog(Ui.getInstance(), e.getMessage());
+                return;
+            }
+
+            TerrainHeightCommand command = new TerrainHeightCommand(terrain);
+            command.captureBefore();
+            Terraformer.heightMap(terrain).maxHeight(terrain.terrainWidth * 0.17f).map(map).terraform();
+            command.captureAfter();
+            if (command.isModified()) history.add(command);
+            return;
+        }
+
         TerrainHeightCommand command = new TerrainHeightCommand(terrain);
-        command.setHeightDataBefore(terrain.heightData);
+        command.captureBefore();
 
         Pixmap originalMap = new Pixmap(heightMap);
 
@@ -135,21 +219,69 @@ public class TerrainGenTab extends Tab {
             originalMap.dispose();
         }
 
-        command.setHeightDataAfter(terrain.heightData);
-        history.add(command);
+        command.captureAfter();
+        if (command.isModified()) history.add(command);
+    }
+
+    /**
+     * Writes the terrain heights with the same height range the import uses,
+     * so exported height maps can be loaded again without changes.
+     */
+    private void exportHeightMap(FileHandle folder) {
+        TerrainAsset asset = parent.component.getTerrain();
+        Terrain terrain = asset.getTerrain();
+        File file = folder.child(asset.getName() + "." + hmFormat.getSelected()).file();
+
+        try {
+            HeightMapExporter.write(file, terrain.heightData, terrain.vertexResolution, 0,
+                    terrain.terrainWidth * 0.17f);
+            Ui.getInstance().getToaster().success("Heightmap exported to " + file.getPath());
+        } catch (IOException | GdxRuntimeException e) {
+            Log.exception(TAG, e);
+            Dialogs.showErrorDialog(Ui.getInstance(), "Failed to export heightmap: " + e.getMessage());
+        }
     }
 
     private void generatePerlinNoise(int seed, float min, float max) {
         Terrain terrain = parent.component.getTerrain().getTerrain();
         TerrainHeightCommand command = new TerrainHeightCommand(terrain);
-        command.setHeightDataBefore(terrain.heightData);
+        command.captureBefore();
 
-        Terraformer.perlin(terrain).minHeight(min).maxHeight(max).seed(seed).terraform();
+        createPerlinPipeline(terrain, seed, min, max).terraform();
 
-        command.setHeightDataAfter(terrain.heightData);
+        command.captureAfter();
         history.add(command);
     }
 
+    /**
+     * Evaluates the perlin noise pipeline at a low resolution and shows the
+     * result as gray scale image.
+     */
+    private void previewPerlinNoise(int seed, float min, float max) {
+        Terrain terrain = parent.component.getTerrain().getTerrain();
+        float[] heights = createPerlinPipeline(terrain, seed, min, max).preview(PREVIEW_SIZE);
+
+        Pixmap pixmap = new Pixmap(PREVIEW_SIZE, PREVIEW_SIZE, Pixmap.Format.RGBA8888);
+        float range = max - min;
+        for (int z = 0; z < PREVIEW_SIZE; z++) {
+            for (int x = 0; x < PREVIEW_SIZE; x++) {
+                float v = range > 0 ? (heights[z * PREVIEW_SIZE + x] - min) / range : 0;
+                pixmap.drawPixel(x, z, Color.rgba8888(v, v, v, 1));
+            }
+        }
+
+        if (perlinPreviewTexture != null) {
+            perlinPreviewTexture.dispose();
+        }
+        perlinPreviewTexture = new Texture(pixmap);
+        pixmap.dispose();
+        perlinPreview.setDrawable(new TextureRegionDrawable(new TextureRegion(perlinPreviewTexture)));
+    }
+
+    private TerrainPipeline createPerlinPipeline(Terrain terrain, int seed, float min, float max) {
+        return Terraformer.pipeline(terrain).minHeight(min).maxHeight(max).noise(seed);
+    }
+
     @Override
     public String getTabTitle() {
         return "Gen";
@@ -160,4 +292,13 @@ public class TerrainGenTab extends Tab {
         return root;
     }
 
+    @Override
+    public void dispose() {
+        super.dispose();
+        if (perlinPreviewTexture != null) {
+            perlinPreviewTexture.dispose();
+            perlinPreviewTexture = null;
+        }
+    }
+
 }
@@ -53,8 +53,7 @@ public class TerrainUtils {
     public static Vector3 getRayIntersection(Array<TerrainAsset> terrains, Ray ray, Vector3 out) {
         for (TerrainAsset terrain : terrains) {
             Terrain terr = terrain.getTerrain();
-            terr.getRayIntersection(out, ray);
-            if (terr.isOnTerrain(out.x, out.z)) {
+            if (terr.getRayIntersection(out, ray) != null && terr.isOnTerrain(out.x, out.z)) {
                 return out;
             }
         }
@@ -64,8 +63,8 @@ public class TerrainUtils {
     public static VertexInfo getRayIntersectionAndUp(Array<TerrainAsset> terrains, Ray ray) {
         for (TerrainAsset terrain : terrains) {
             Terrain terr = terrain.getTerrain();
-            terr.getRayIntersection(tempVI.position, ray);
-            if (terr.isOnTerrain(tempVI.position.x, tempVI.position.z)) {
+            if (terr.getRayIntersection(tempVI.position, ray) != null
+                    && terr.isOnTerrain(tempVI.position.x, tempVI.position.z)) {
                 tempVI.normal.set(terr.getNormalAtWordCoordinate(tempVI.position.x, tempVI.position.z));
                 return tempVI;
             }
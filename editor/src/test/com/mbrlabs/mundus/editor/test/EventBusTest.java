@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016. See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.mbrlabs.mundus.editor.test;
+
+import com.mbrlabs.mundus.commons.scene3d.GameObject;
+import com.mbrlabs.mundus.events.Deferred;
+import com.mbrlabs.mundus.events.EventBus;
+import com.mbrlabs.mundus.events.GameObjectModifiedEvent;
+import com.mbrlabs.mundus.events.GameObjectModifiedEvent.GameObjectModifiedListener;
+import com.mbrlabs.mundus.events.SceneChangedEvent;
+import com.mbrlabs.mundus.events.SceneGraphChangedEvent;
+import com.mbrlabs.mundus.events.SceneGraphChangedEvent.SceneGraphChangedListener;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Marcus Brummer
+ * @version 18-10-2026
+ */
+public class EventBusTest {
+
+    private int firstCalls = 0;
+
+    @Test
+    public void postOnlyReachesSubscribersOfEventType() {
+        EventBus bus = new EventBus();
+        MockSubscriber sub = new MockSubscriber();
+        bus.register(sub);
+
+        bus.post(new SceneGraphChangedEvent());
+        bus.post(new SceneGraphChangedEvent());
+        bus.post(new SceneChangedEvent());
+        bus.post(new Object());
+
+        assertEquals(2, sub.calls);
+    }
+
+    @Test
+    public void unregisterWhilePosting() {
+        final EventBus bus = new EventBus();
+        final MockSubscriber second = new MockSubscriber();
+        final SceneGraphChangedListener first = new SceneGraphChangedListener() {
+            @Override
+            public void onSceneGraphChanged(SceneGraphChangedEvent sceneGraphChangedEvent) {
+                firstCalls++;
+                bus.unregister(second);
+            }
+        };
+        bus.register(first);
+        bus.register(second);
+
+        bus.post(new SceneGraphChangedEvent());
+        assertEquals(1, firstCalls);
+        assertEquals(1, second.calls);
+
+        bus.post(new SceneGraphChangedEvent());
+        assertEquals(2, firstCalls);
+        assertEquals(1, second.calls);
+    }
+
+    @Test
+    public void deferredEventsAreCoalescedUntilFlush() {
+        EventBus bus = new EventBus();
+        DeferredSubscriber sub = new DeferredSubscriber();
+        bus.register(sub);
+
+        for (int i = 0; i < 10; i++) {
+            bus.post(new SceneGraphChangedEvent());
+        }
+        assertEquals(0, sub.calls);
+
+        bus.flush();
+        assertEquals(1, sub.calls);
+        bus.flush();
+        assertEquals(1, sub.calls);
+    }
+
+    @Test
+    public void deferredEventsAreCoalescedPerTarget() {
+        EventBus bus = new EventBus();
+        DeferredSubscriber sub = new DeferredSubscriber();
+        bus.register(sub);
+
+        GameObject a = new GameObject(null, "a", 1);
+        GameObject b = new GameObject(null, "b", 2);
+        bus.post(new GameObjectModifiedEvent(a));
+        bus.post(new GameObjectModifiedEvent(b));
+        bus.post(new GameObjectModifiedEvent(a));
+
+        bus.flush();
+        assertEquals(2, sub.modifiedCalls);
+    }
+
+    @Test
+    public void unregisteredSubscriberMissesQueuedEvents() {
+        EventBus bus = new EventBus();
+        DeferredSubscriber sub = new DeferredSubscriber();
+        bus.register(sub);
+
+        bus.post(new SceneGraphChangedEvent());
+        bus.unregister(sub);
+        bus.flush();
+        assertEquals(0, sub.calls);
+    }
+
+    private class DeferredSubscriber implements SceneGraphChangedListener, GameObjectModifiedListener {
+        private int calls = 0;
+        private int modifiedCalls = 0;
+
+        @Override
+        @Deferred
+        public void onSceneGraphChanged(SceneGraphChangedEvent sceneGraphChangedEvent) {
+            calls++;
+        }
+
+        @Override
+        @Deferred(perTarget = true)
+        public void onGameObjectModified(GameObjectModifiedEvent gameObjectModifiedEvent) {
+            modifiedCalls++;
+        }
+    }
+
+    private class MockSubscriber implements SceneGraphChangedListener {
+        private int calls = 0;
+
+        @Override
+        public void onSceneGraphChanged(SceneGraphChangedEvent sceneGraphChangedEvent) {
+            calls++;
+        }
+    }
+
+}
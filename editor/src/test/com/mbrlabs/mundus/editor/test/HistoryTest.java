@@ -18,10 +18,18 @@ package com.mbrlabs.mundus.editor.test;
 
 import com.mbrlabs.mundus.history.Command;
 import com.mbrlabs.mundus.history.CommandHistory;
+import com.mbrlabs.mundus.history.SpillableCommand;
 
 import org.junit.Test;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Marcus Brummer
@@ -84,6 +92,87 @@ public class HistoryTest {
         assertEquals(2, history.size());
     }
 
+    @Test
+    public void exceedBudgetSpillsAndRestores() throws IOException {
+        File spillDir = File.createTempFile("history", "");
+        spillDir.delete();
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_LIMIT, 250, spillDir);
+
+        MockSpillableCommand first = new MockSpillableCommand(100);
+        history.add(first);
+        history.add(new MockSpillableCommand(100));
+        assertEquals(0, history.getSpilledCount());
+        history.add(new MockSpillableCommand(100));
+        assertEquals(1, history.getSpilledCount());
+        assertEquals(200, history.getMemorySize());
+        assertEquals(0, first.getMemorySize());
+
+        history.goBack();
+        history.goBack();
+        history.goBack();
+        assertEquals(100, first.getMemorySize());
+        assertEquals(-1, history.getPointer());
+        assertTrue(history.getMemorySize() <= 250);
+
+        history.clear();
+        assertEquals(0, history.getMemorySize());
+        assertFalse(spillDir.exists());
+    }
+
+    @Test
+    public void exceedBudgetWithoutSpillDirectoryDropsOldest() {
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_LIMIT, 250, null);
+
+        history.add(new MockSpillableCommand(100));
+        history.add(new MockSpillableCommand(100));
+        int ptr = history.add(new MockSpillableCommand(100));
+        assertEquals(1, ptr);
+        assertEquals(2, history.size());
+        assertEquals(200, history.getMemorySize());
+    }
+
+    @Test
+    public void commandLargerThanBudgetKeepsHistory() {
+        CommandHistory history = new CommandHistory(CommandHistory.DEFAULT_LIMIT, 250, null);
+
+        history.add(new MockCommand());
+        history.add(new MockCommand());
+        history.add(new MockCommand());
+        int ptr = history.add(new MockSpillableCommand(1000));
+        assertEquals(3, ptr);
+        assertEquals(4, history.size());
+
+        // the big command is pinned as next undo, even after going back
+        history.goBack();
+        assertEquals(4, history.size());
+    }
+
+    private class MockSpillableCommand extends MockCommand implements SpillableCommand {
+        private byte[] data;
+
+        MockSpillableCommand(int size) {
+            data = new byte[size];
+        }
+
+        @Override
+        public long getMemorySize() {
+            return data.length;
+        }
+
+        @Override
+        public void spill(DataOutput out) throws IOException {
+            out.writeInt(data.length);
+            out.write(data);
+            data = new byte[0];
+        }
+
+        @Override
+        public void restore(DataInput in) throws IOException {
+            data = new byte[in.readInt()];
+            in.readFully(data);
+        }
+    }
+
     private class MockCommand implements Command {
         @Override
         public void execute() {